@@ -0,0 +1,37 @@
+package JavaSets;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalizing table (hash-consing): equal values interned in the same table share a single instance
+ * The table only holds weak references, a canonical instance is forgotten once nothing else refers to it
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class Interner<T> {
+
+    private final Map<T, WeakReference<T>> table = new WeakHashMap<>();
+
+    /**
+     * @param t the value to intern, should be immutable
+     * @return the canonical instance equal to t, t itself if it is the first one interned
+     */
+    public synchronized T intern(T t) {
+        final WeakReference<T> ref = table.get(t);
+        final T canonical = ref == null ? null : ref.get();
+        if (canonical != null)
+            return canonical;
+        table.put(t, new WeakReference<>(t));
+        return t;
+    }
+
+    /**
+     * @return the number of canonical instances currently held
+     */
+    public synchronized int size() {
+        return table.size();
+    }
+}
@@ -1,5 +1,7 @@
 package JavaSets.graphs;
 
+import JavaSets.instrumentation.Instrumentation;
+import JavaSets.instrumentation.Operation;
 import JavaSets.sets.OptionalPair;
 import JavaSets.sets.abstraction.AbstractSSet;
 import JavaSets.sets.abstraction.AbstractPartitionSet;
@@ -46,16 +48,20 @@ public final class ConcreteGraph<T> extends SSet<OptionalPair<T, Link<T>>> imple
      * @param mathSet the underlying data
      */
     public ConcreteGraph(AbstractSSet<OptionalPair<T, Link<T>>> mathSet) {
-        super(mathSet.getData());
-        vertices = new PartitionSet<>(mathSet.image(p -> p.getKey().orElse(null)), (T v, T u) -> neighboursOf(of(u)).contains(v));
-        this.edges = new SSet<>(mathSet.image(p -> p.getValue().orElse(null)));
+        super(mathSet);
+        vertices = new PartitionSet<>(mathSet.image(OptionalPair::left), (T v, T u) -> neighboursOf(of(u)).contains(v));
+        this.edges = new SSet<>(mathSet.image(OptionalPair::right));
 
     }
 
 
     @Override
     public Optional<AbstractPartitionSet<T>> getNeighbours(T point) {
-        return Optional.of(new PartitionSet<>(edges.suchThat(l -> l.contains(point)).image(p -> p.next(point))));
+        final long start = Instrumentation.start();
+        final PartitionSet<T> neighbours = new PartitionSet<>(edges.suchThat(l -> l.contains(point)).image(p -> p.next(point)));
+        if (Instrumentation.ENABLED)
+            Instrumentation.record(Operation.GET_NEIGHBOURS, start, edges.cardinality(), neighbours.cardinality());
+        return Optional.of(neighbours);
     }
 
     @Override
@@ -24,7 +24,7 @@ public final class GraphNode<T> {
     final private T value;
     final private GraphNode<T> parent;
     final private int depth;
-    final private Path<GraphNode<T>> hierarchy;
+    private Path<GraphNode<T>> hierarchy;
     private int nmbrOfChildren;
     private boolean lockNode;
 
@@ -53,8 +53,6 @@ public final class GraphNode<T> {
         this.value = value;
         this.parent = parent;
         this.depth = (parent == null) ? 0 : parent.getDepth() + 1;
-        this.hierarchy = new Path<>(new OrderedTuple<>(
-                new ArrayList<>(hierarchyRecur(new ArrayDeque<>(Collections.singleton(this))))));
     }
 
     /**
@@ -69,9 +67,12 @@ public final class GraphNode<T> {
 
     /**
      * @return (Path<GraphNode<T>>) a Path of all the nodes higher than this node; i.e its parent and (recursively) the parent
-     * of its parent until reaching the root of the hierarchy
+     * of its parent until reaching the root of the hierarchy, only built the first time it is asked for
      */
     public Path<GraphNode<T>> hierarchy() {
+        if (hierarchy == null)
+            hierarchy = new Path<>(new OrderedTuple<>(
+                    new ArrayList<>(hierarchyRecur(new ArrayDeque<>(Collections.singleton(this))))));
         return hierarchy;
     }
 
@@ -132,7 +133,7 @@ public final class GraphNode<T> {
      * @return whether one is the (possibly distant) parent of the other
      */
     public static <X> boolean areRelated(GraphNode<X> node1, GraphNode<X> node2) {
-        return node1.hierarchy.contains(node2) || node2.hierarchy.contains(node1);
+        return node1.hierarchy().contains(node2) || node2.hierarchy().contains(node1);
     }
 
     /**
@@ -157,8 +158,8 @@ public final class GraphNode<T> {
         if (node1.equals(node2)) return true;
         if (!areRelated(node1, node2)) return false;
 
-        final Path<GraphNode<X>> chosenHier = (node1.hierarchy.cardinality() > node2.hierarchy.cardinality()) ?
-                node1.hierarchy : node2.hierarchy;
+        final Path<GraphNode<X>> chosenHier = (node1.getDepth() > node2.getDepth()) ?
+                node1.hierarchy() : node2.hierarchy();
         return chosenHier.stream().takeWhile(node -> node.nmbrOfChildren <= 1)
                 .collect(Collectors.toSet()).containsAll(Set.of(node1, node2));
     }
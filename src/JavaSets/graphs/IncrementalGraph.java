@@ -0,0 +1,158 @@
+package JavaSets.graphs;
+
+import JavaSets.sets.abstraction.AbstractPartitionSet;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.PartitionSet;
+import JavaSets.sets.concrete.SSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A mutable graph maintaining its connected components while links are streamed in
+ * Adding a link merges the components of its ends in a union-find forest in O(alpha(n)) amortized,
+ * removals are batched: the forest is rebuilt from the remaining links on the first connectivity query following them
+ * All the methods are synchronized, the graph can be fed and queried from different threads
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class IncrementalGraph<T> implements Graph<T, AbstractPartitionSet<T>> {
+
+    private final Map<T, Set<T>> adjacency = new HashMap<>();
+    private final Set<Link<T>> edges = new HashSet<>();
+    private UnionFind<T> components = new UnionFind<>();
+    private boolean stale;
+
+    /**
+     * Constructs an empty graph
+     */
+    public IncrementalGraph() {
+    }
+
+    /**
+     * @param graph the graph whose vertices and links are copied
+     */
+    public IncrementalGraph(Graph<T, ?> graph) {
+        graph.vertexSet().forEach(this::addVertex);
+        graph.edgeSet().forEach(this::addLink);
+    }
+
+    /**
+     * @param point the vertex to add, in its own component if it is new
+     */
+    public synchronized void addVertex(T point) {
+        adjacency.computeIfAbsent(point, k -> new HashSet<>());
+        if (!stale)
+            components.add(point);
+    }
+
+    /**
+     * Adds a link and its ends, merging their components
+     *
+     * @param link the link to add
+     * @return whether the link was absent
+     */
+    public synchronized boolean addLink(Link<T> link) {
+        if (!edges.add(link))
+            return false;
+        final T t = link.head();
+        final T u = link.tail();
+        adjacency.computeIfAbsent(t, k -> new HashSet<>()).add(u);
+        adjacency.computeIfAbsent(u, k -> new HashSet<>()).add(t);
+        if (!stale)
+            components.union(t, u);
+        return true;
+    }
+
+    /**
+     * Removes a link, the components will be recomputed on the next connectivity query
+     *
+     * @param link the link to remove
+     * @return whether the link was present
+     */
+    public synchronized boolean removeLink(Link<T> link) {
+        if (!edges.remove(link))
+            return false;
+        final T t = link.head();
+        final T u = link.tail();
+        adjacency.get(t).remove(u);
+        adjacency.get(u).remove(t);
+        stale = true;
+        return true;
+    }
+
+    /**
+     * @param v1 a vertex
+     * @param v2 another vertex
+     * @return whether both vertices are in the graph and linked by a path, in O(alpha(n)) amortized
+     */
+    @Override
+    public synchronized boolean areConnected(T v1, T v2) {
+        return components().connected(v1, v2);
+    }
+
+    /**
+     * @return an immutable graph holding the current vertices, links and components
+     */
+    public synchronized ConcreteGraph<T> snapshot() {
+        return new ConcreteGraph<>(vertexSet(), edgeSet());
+    }
+
+    @Override
+    public synchronized Optional<AbstractPartitionSet<T>> getNeighbours(T point) {
+        final Set<T> neighbours = adjacency.get(point);
+        return neighbours == null ? Optional.empty() : Optional.of(new PartitionSet<>(new SSet<>(Set.copyOf(neighbours))));
+    }
+
+    @Override
+    public Graph<T, AbstractPartitionSet<T>> on(AbstractSSet<T> points) {
+        return snapshot().on(points);
+    }
+
+    @Override
+    public synchronized Graph<T, AbstractPartitionSet<T>> connectedComponent(T point) {
+        final List<T> component = components().classOf(point);
+        final Set<Link<T>> links = new HashSet<>();
+        for (T t : component)
+            for (T u : adjacency.get(t))
+                links.add(new Link<>(t, u));
+        return new ConcreteGraph<>(new PartitionSet<>(new SSet<>(component)), new SSet<>(links));
+    }
+
+    @Override
+    public AbstractSSet<Graph<T, AbstractPartitionSet<T>>> connectedComponents() {
+        return snapshot().connectedComponents();
+    }
+
+    @Override
+    public synchronized AbstractSSet<Link<T>> edgeSet() {
+        return new SSet<>(Set.copyOf(edges));
+    }
+
+    @Override
+    public synchronized AbstractPartitionSet<T> vertexSet() {
+        final List<AbstractSSet<T>> classes = new ArrayList<>();
+        components().classes().forEach(c -> classes.add(new SSet<>(c)));
+        return new PartitionSet<>(classes);
+    }
+
+    /**
+     * @return the union-find forest, rebuilt if links were removed since the last query
+     */
+    private UnionFind<T> components() {
+        if (stale) {
+            final UnionFind<T> rebuilt = new UnionFind<>();
+            adjacency.keySet().forEach(rebuilt::add);
+            edges.forEach(l -> rebuilt.union(l.head(), l.tail()));
+            components = rebuilt;
+            stale = false;
+        }
+        return components;
+    }
+}
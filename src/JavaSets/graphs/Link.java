@@ -1,17 +1,42 @@
 package JavaSets.graphs;
 
-import JavaSets.sets.concrete.OrderedTuple;
+import JavaSets.sets.abstraction.AbstractOrderedTuple;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.abstraction.SetFunction;
+import JavaSets.sets.concrete.SSet;
+import JavaSets.sets.properties.Conjunction;
 import javafx.util.Pair;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Abstraction of an edge, or link between two elements of the same type on a graph
+ * A link only holds its two ends and its hash, two links being equal when they tie the same elements in any order
  *
  * @author Alexandre Sallinen (303162)
  * @author Salim Najib (310003)
  */
-public final class Link<T> extends OrderedTuple<T> {
+public final class Link<T> implements AbstractOrderedTuple<T> {
+
+    /**
+     * The canonical links of each pair of ends, one per orientation, only weakly held
+     */
+    private static final Map<Link<?>, List<WeakReference<Link<?>>>> CANONICAL = new WeakHashMap<>();
+
+    private final T first;
+    private final T second;
+    private final int hash;
 
     /**
      * Link constructor: ties 2 elements together
@@ -20,7 +45,9 @@ public final class Link<T> extends OrderedTuple<T> {
      * @param u (T)
      */
     public Link(final T t, final T u) {
-        super(t, u);
+        first = t;
+        second = u;
+        hash = Objects.equals(t, u) ? Objects.hashCode(t) : Objects.hashCode(t) + Objects.hashCode(u);
     }
 
     /**
@@ -29,7 +56,32 @@ public final class Link<T> extends OrderedTuple<T> {
      */
     public Link(Pair<T, T> p) {
 
-        super(p.getKey(), p.getValue());
+        this(p.getKey(), p.getValue());
+    }
+
+    /**
+     * Interned link: links built this way with the same ends in the same order share a single instance
+     *
+     * @param t (T)
+     * @param u (T)
+     * @param <T> the type of the ends
+     * @return the canonical link from t to u
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Link<T> of(final T t, final T u) {
+        final Link<T> link = new Link<>(t, u);
+        synchronized (CANONICAL) {
+            final List<WeakReference<Link<?>>> orientations = CANONICAL.computeIfAbsent(link, l -> new ArrayList<>(2));
+            for (Iterator<WeakReference<Link<?>>> it = orientations.iterator(); it.hasNext(); ) {
+                final Link<?> canonical = it.next().get();
+                if (canonical == null)
+                    it.remove();
+                else if (Objects.equals(canonical.first, t) && Objects.equals(canonical.second, u))
+                    return (Link<T>) canonical;
+            }
+            orientations.add(new WeakReference<>(link));
+            return link;
+        }
     }
 
     /**
@@ -39,7 +91,108 @@ public final class Link<T> extends OrderedTuple<T> {
      * @return (T) the object 'start' is tied to
      * @throws NoSuchElementException if 'start' is not in the link
      */
+    @Override
     public T next(T start) {
-        return getElement(l -> !l.equals(start)).get();
+        if (Objects.equals(start, first))
+            return second;
+        if (Objects.equals(start, second))
+            return first;
+        throw new NoSuchElementException();
+    }
+
+    @Override
+    public T head() {
+        return first;
+    }
+
+    @Override
+    public T tail() {
+        return second;
+    }
+
+    @Override
+    public T at(Integer i) {
+        if (i == 0)
+            return first;
+        if (i == cardinality() - 1)
+            return second;
+        throw new IndexOutOfBoundsException(i);
+    }
+
+    @Override
+    public SetFunction<Integer, T> getIndexer() {
+        return this::at;
+    }
+
+    @Override
+    public int indexOf(T t) {
+        return Objects.equals(t, first) ? 0 : Objects.equals(t, second) ? 1 : -1;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return Objects.equals(t, first) || Objects.equals(t, second);
+    }
+
+    @Override
+    public int cardinality() {
+        return isLoop() ? 1 : 2;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    /**
+     * @return whether the link ties an element to itself
+     */
+    public boolean isLoop() {
+        return Objects.equals(first, second);
+    }
+
+    @Override
+    public List<T> toList() {
+        return isLoop() ? List.of(first) : List.of(first, second);
+    }
+
+    @Override
+    public Set<T> getData() {
+        return isLoop() ? Set.of(first) : Set.of(first, second);
+    }
+
+    @Override
+    public AbstractSSet<T> suchThat(Collection<Predicate<T>> t) {
+        final Conjunction<T> conjunction = Conjunction.compile(t, this);
+        return conjunction.source().stream().filter(conjunction).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<T> union(Collection<AbstractSSet<T>> others) {
+        return Stream.concat(stream(), others.stream().flatMap(AbstractSSet::stream)).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> powerSet() {
+        return AbstractSSet.powerSet(getData()).stream().map(SSet::new).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Link)) return false;
+        final Link<?> link = (Link<?>) o;
+        return hash == link.hash && (Objects.equals(first, link.first) && Objects.equals(second, link.second)
+                || Objects.equals(first, link.second) && Objects.equals(second, link.first));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
     }
 }
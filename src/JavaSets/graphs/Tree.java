@@ -44,11 +44,11 @@ public final class Tree<V> extends PointedSet<GraphNode<V>> implements Graph<Gra
      * @throws IllegalArgumentException if given leaves aren't all connected to the same root
      */
     public Tree(AbstractSSet<GraphNode<V>> nodes) {
-        this(nodes, true, nodes.minOf(GraphNode::getDepth), nodes.maxOf(GraphNode::getDepth).getDepth());
+        this(nodes, true, nodes.minOfInt(GraphNode::getDepth), nodes.maxOfInt(GraphNode::getDepth).getDepth());
     }
 
     public Tree(AbstractSSet<GraphNode<V>> nodes, boolean securityChecksActivated) {
-        this(nodes, securityChecksActivated, nodes.minOf(GraphNode::getDepth), nodes.maxOf(GraphNode::getDepth).getDepth());
+        this(nodes, securityChecksActivated, nodes.minOfInt(GraphNode::getDepth), nodes.maxOfInt(GraphNode::getDepth).getDepth());
     }
 
     public Tree()
@@ -146,7 +146,7 @@ public final class Tree<V> extends PointedSet<GraphNode<V>> implements Graph<Gra
             return nodeTwoHierarchy.findPathBetween(node1, node2);
         } else {
 
-            final GraphNode<V> anchor = aut.maxOf(GraphNode::getDepth);
+            final GraphNode<V> anchor = aut.maxOfInt(GraphNode::getDepth);
             return  Optional.of(new Path<>(nodeOneHierarchy.findPathBetween(node1, anchor).orElseThrow())
                     .add(new Path<>(nodeTwoHierarchy.findPathBetween(anchor, node2).orElseThrow()).reverse()));
         }
@@ -0,0 +1,108 @@
+package JavaSets.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Disjoint set forest with union by rank and path halving, finds and unions cost O(alpha(n)) amortized
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+final class UnionFind<T> {
+
+    private final Map<T, Integer> ids = new HashMap<>();
+    private final List<T> elements = new ArrayList<>();
+    private int[] parent = new int[16];
+    private byte[] rank = new byte[16];
+
+    /**
+     * @param t the element to add as its own class, nothing happens if it is already present
+     * @return the id of the element
+     */
+    int add(T t) {
+        final Integer id = ids.get(t);
+        if (id != null)
+            return id;
+        final int newId = elements.size();
+        if (newId == parent.length) {
+            parent = Arrays.copyOf(parent, newId * 2);
+            rank = Arrays.copyOf(rank, newId * 2);
+        }
+        parent[newId] = newId;
+        ids.put(t, newId);
+        elements.add(t);
+        return newId;
+    }
+
+    boolean contains(T t) {
+        return ids.containsKey(t);
+    }
+
+    /**
+     * Merges the classes of two elements, adding them if needed
+     *
+     * @return whether the two classes were distinct
+     */
+    boolean union(T t, T u) {
+        int a = find(add(t));
+        int b = find(add(u));
+        if (a == b)
+            return false;
+        if (rank[a] < rank[b]) {
+            final int c = a;
+            a = b;
+            b = c;
+        }
+        parent[b] = a;
+        if (rank[a] == rank[b])
+            ++rank[a];
+        return true;
+    }
+
+    /**
+     * @return whether both elements are present and in the same class
+     */
+    boolean connected(T t, T u) {
+        final Integer a = ids.get(t);
+        final Integer b = ids.get(u);
+        return a != null && b != null && find(a) == find(b);
+    }
+
+    /**
+     * @return the classes of all the elements
+     */
+    Collection<List<T>> classes() {
+        final Map<Integer, List<T>> classes = new HashMap<>();
+        for (int i = 0; i < elements.size(); i++)
+            classes.computeIfAbsent(find(i), k -> new ArrayList<>()).add(elements.get(i));
+        return classes.values();
+    }
+
+    /**
+     * @return the class of an element, empty if absent
+     */
+    List<T> classOf(T t) {
+        final Integer id = ids.get(t);
+        final List<T> result = new ArrayList<>();
+        if (id == null)
+            return result;
+        final int root = find(id);
+        for (int i = 0; i < elements.size(); i++)
+            if (find(i) == root)
+                result.add(elements.get(i));
+        return result;
+    }
+
+    private int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,81 @@
+package JavaSets.instrumentation;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Opt-in counters of the set algebra and graph queries, published as MBeans and flight recorder events
+ * Enabled by starting the JVM with -Djavasets.instrumentation=true, the flag being a constant the JIT
+ * removes the instrumentation entirely from the call sites when it is disabled
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class Instrumentation {
+
+    /**
+     * Whether the operations are instrumented, call sites must test it before calling record
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("javasets.instrumentation");
+
+    private static final Map<Operation, OperationStats> STATS = new EnumMap<>(Operation.class);
+
+    static {
+        for (Operation op : Operation.values())
+            STATS.put(op, new OperationStats());
+        if (ENABLED) {
+            try {
+                for (Operation op : Operation.values())
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(STATS.get(op),
+                            new ObjectName("JavaSets:type=Operation,name=" + op.name()));
+            } catch (JMException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    //Non instantiable
+    private Instrumentation() { throw new UnsupportedOperationException(); }
+
+    /**
+     * @return the start time of an operation, 0 when disabled
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a finished operation
+     *
+     * @param op              the operation
+     * @param start           the value returned by start when the operation began
+     * @param elementsScanned the number of elements the operation read
+     * @param resultSize      the cardinality of the set it materialized, -1 if it materialized none
+     */
+    public static void record(Operation op, long start, long elementsScanned, long resultSize) {
+        if (!ENABLED)
+            return;
+        final long nanos = System.nanoTime() - start;
+        STATS.get(op).record(nanos, elementsScanned, resultSize);
+
+        final SetOperationEvent event = new SetOperationEvent();
+        if (event.shouldCommit()) {
+            event.operation = op.name();
+            event.elementsScanned = elementsScanned;
+            event.resultSize = resultSize;
+            event.time = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param op the operation
+     * @return the statistics of the operation, also reachable through JMX
+     */
+    public static OperationStats statsOf(Operation op) {
+        return STATS.get(op);
+    }
+}
@@ -0,0 +1,13 @@
+package JavaSets.instrumentation;
+
+/**
+ * The instrumented operations
+ * GET_NEIGHBOURS is composite, the selection and image it runs being also recorded under SUCH_THAT and IMAGE,
+ * so that times must not be summed across operations
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public enum Operation {
+    SUCH_THAT, UNION, INTERSECTION, IMAGE, GET_NEIGHBOURS
+}
@@ -0,0 +1,79 @@
+package JavaSets.instrumentation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of an operation, updated concurrently without contention
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class OperationStats implements OperationStatsMBean {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder materializedSets = new LongAdder();
+    private final LongAdder materializedElements = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAdder[] latencies = new LongAdder[Long.SIZE];
+
+    OperationStats() {
+        for (int i = 0; i < latencies.length; i++)
+            latencies[i] = new LongAdder();
+    }
+
+    void record(long nanos, long elementsScanned, long resultSize) {
+        calls.increment();
+        scanned.add(elementsScanned);
+        if (resultSize >= 0) {
+            materializedSets.increment();
+            materializedElements.add(resultSize);
+        }
+        totalTime.add(nanos);
+        latencies[Math.min(Long.SIZE - 1, Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, nanos)))].increment();
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getElementsScanned() {
+        return scanned.sum();
+    }
+
+    @Override
+    public long getMaterializedSets() {
+        return materializedSets.sum();
+    }
+
+    @Override
+    public long getMaterializedElements() {
+        return materializedElements.sum();
+    }
+
+    @Override
+    public long getTotalTimeNanos() {
+        return totalTime.sum();
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        final long[] histogram = new long[latencies.length];
+        for (int i = 0; i < histogram.length; i++)
+            histogram[i] = latencies[i].sum();
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        scanned.reset();
+        materializedSets.reset();
+        materializedElements.reset();
+        totalTime.reset();
+        for (LongAdder latency : latencies)
+            latency.reset();
+    }
+}
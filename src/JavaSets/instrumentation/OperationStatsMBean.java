@@ -0,0 +1,45 @@
+package JavaSets.instrumentation;
+
+/**
+ * Management interface of the statistics of an operation
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public interface OperationStatsMBean {
+
+    /**
+     * @return the number of calls
+     */
+    long getCalls();
+
+    /**
+     * @return the number of elements read by all the calls
+     */
+    long getElementsScanned();
+
+    /**
+     * @return the number of sets materialized by all the calls
+     */
+    long getMaterializedSets();
+
+    /**
+     * @return the number of elements stored in the materialized sets
+     */
+    long getMaterializedElements();
+
+    /**
+     * @return the time spent in all the calls
+     */
+    long getTotalTimeNanos();
+
+    /**
+     * @return the number of calls per latency bucket, bucket i counting the calls that lasted less than 2^i ns
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * Sets all the counters back to 0
+     */
+    void reset();
+}
@@ -0,0 +1,33 @@
+package JavaSets.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event emitted for each instrumented operation
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+@Name("JavaSets.SetOperation")
+@Label("Set Operation")
+@Category("JavaSets")
+@Description("An operation of the set algebra or a graph query")
+final class SetOperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Elements Scanned")
+    long elementsScanned;
+
+    @Label("Result Size")
+    long resultSize;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
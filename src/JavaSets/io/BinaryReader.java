@@ -0,0 +1,131 @@
+package JavaSets.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Buffered reader of the values written by a BinaryWriter
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class BinaryReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+
+    /**
+     * @param channel the channel to read from
+     */
+    public BinaryReader(ReadableByteChannel channel) {
+        this(channel, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * @param channel the channel to read from
+     * @param order   the byte order of the fixed width values, the one they were written with
+     */
+    public BinaryReader(ReadableByteChannel channel, ByteOrder order) {
+        this.channel = channel;
+        buffer.order(order);
+    }
+
+    /**
+     * @return the next byte, as an unsigned value
+     * @throws IOException if the channel fails or ends
+     */
+    public int readByte() throws IOException {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * @return the next 4 bytes
+     * @throws IOException if the channel fails or ends
+     */
+    public int readInt() throws IOException {
+        require(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    /**
+     * @return the next 8 bytes
+     * @throws IOException if the channel fails or ends
+     */
+    public long readLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    /**
+     * @return the next variable length int, non negative
+     * @throws IOException if the channel fails or ends, or if the value does not fit in a non negative int
+     */
+    public int readVarInt() throws IOException {
+        final long l = readVarLong();
+        if (l < 0 || l > Integer.MAX_VALUE)
+            throw new IOException("Variable length int out of range: " + Long.toUnsignedString(l) + ".");
+        return (int) l;
+    }
+
+    /**
+     * @return the next variable length long
+     * @throws IOException if the channel fails or ends
+     */
+    public long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return result;
+        }
+        throw new IOException("Malformed variable length integer.");
+    }
+
+    /**
+     * @return the next signed long
+     * @throws IOException if the channel fails or ends
+     */
+    public long readZigZagLong() throws IOException {
+        final long l = readVarLong();
+        return (l >>> 1) ^ -(l & 1);
+    }
+
+    /**
+     * @return the next bytes, preceded by their length
+     * @throws IOException if the channel fails or ends
+     */
+    public byte[] readBytes() throws IOException {
+        final byte[] bytes = new byte[readVarInt()];
+        int offset = 0;
+        while (offset < bytes.length) {
+            require(1);
+            final int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Refills the buffer until it holds at least n bytes
+     */
+    private void require(int n) throws IOException {
+        if (buffer.remaining() >= n)
+            return;
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+}
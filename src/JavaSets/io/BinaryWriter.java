@@ -0,0 +1,137 @@
+package JavaSets.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Buffered writer of variable length integers and raw bytes on a channel
+ * The channel is owned by the caller, the writer only has to be flushed once everything was written
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class BinaryWriter implements Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * @param channel the channel to write on
+     */
+    public BinaryWriter(WritableByteChannel channel) {
+        this(channel, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * @param channel the channel to write on
+     * @param order   the byte order of the fixed width values
+     */
+    public BinaryWriter(WritableByteChannel channel, ByteOrder order) {
+        this.channel = channel;
+        buffer.order(order);
+    }
+
+    /**
+     * @param b the byte to write
+     * @throws IOException if the channel fails
+     */
+    public void writeByte(int b) throws IOException {
+        if (!buffer.hasRemaining())
+            drain();
+        buffer.put((byte) b);
+    }
+
+    /**
+     * @param i the 4 bytes to write as is
+     * @throws IOException if the channel fails
+     */
+    public void writeInt(int i) throws IOException {
+        if (buffer.remaining() < Integer.BYTES)
+            drain();
+        buffer.putInt(i);
+    }
+
+    /**
+     * @param l the 8 bytes to write as is
+     * @throws IOException if the channel fails
+     */
+    public void writeLong(long l) throws IOException {
+        if (buffer.remaining() < Long.BYTES)
+            drain();
+        buffer.putLong(l);
+    }
+
+    /**
+     * Writes a non negative int on 1 to 5 bytes, 7 bits at a time
+     *
+     * @param i the int to write
+     * @throws IOException if the channel fails
+     */
+    public void writeVarInt(int i) throws IOException {
+        writeVarLong(Integer.toUnsignedLong(i));
+    }
+
+    /**
+     * Writes a non negative long on 1 to 10 bytes, 7 bits at a time
+     *
+     * @param l the long to write
+     * @throws IOException if the channel fails
+     */
+    public void writeVarLong(long l) throws IOException {
+        if (buffer.remaining() < 10)
+            drain();
+        while ((l & ~0x7FL) != 0) {
+            buffer.put((byte) ((l & 0x7F) | 0x80));
+            l >>>= 7;
+        }
+        buffer.put((byte) l);
+    }
+
+    /**
+     * Writes a signed long, small absolute values taking few bytes
+     *
+     * @param l the long to write
+     * @throws IOException if the channel fails
+     */
+    public void writeZigZagLong(long l) throws IOException {
+        writeVarLong((l << 1) ^ (l >> 63));
+    }
+
+    /**
+     * @param bytes the bytes to write, preceded by their length
+     * @throws IOException if the channel fails
+     */
+    public void writeBytes(byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining())
+                drain();
+            final int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Writes the buffered bytes on the channel
+     *
+     * @throws IOException if the channel fails
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,63 @@
+package JavaSets.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoding of the elements stored in the dictionary of a serialized structure
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * @param t   the element to write
+     * @param out the writer
+     * @throws IOException if the channel fails
+     */
+    void write(T t, BinaryWriter out) throws IOException;
+
+    /**
+     * @param in the reader
+     * @return the element read
+     * @throws IOException if the channel fails or ends
+     */
+    T read(BinaryReader in) throws IOException;
+
+    ElementCodec<Integer> INTEGER = new ElementCodec<>() {
+        @Override
+        public void write(Integer t, BinaryWriter out) throws IOException {
+            out.writeZigZagLong(t);
+        }
+
+        @Override
+        public Integer read(BinaryReader in) throws IOException {
+            return (int) in.readZigZagLong();
+        }
+    };
+
+    ElementCodec<Long> LONG = new ElementCodec<>() {
+        @Override
+        public void write(Long t, BinaryWriter out) throws IOException {
+            out.writeZigZagLong(t);
+        }
+
+        @Override
+        public Long read(BinaryReader in) throws IOException {
+            return in.readZigZagLong();
+        }
+    };
+
+    ElementCodec<String> STRING = new ElementCodec<>() {
+        @Override
+        public void write(String t, BinaryWriter out) throws IOException {
+            out.writeBytes(t.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(BinaryReader in) throws IOException {
+            return new String(in.readBytes(), StandardCharsets.UTF_8);
+        }
+    };
+}
@@ -0,0 +1,272 @@
+package JavaSets.io;
+
+import JavaSets.graphs.ConcreteGraph;
+import JavaSets.graphs.Graph;
+import JavaSets.graphs.Link;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.PartitionSet;
+import JavaSets.sets.concrete.SSet;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A read only graph on int vertices stored in a memory mapped file
+ * The vertices are a sorted array and the links compressed sparse rows: the neighbours of the i-th vertex
+ * are the sorted ints between offsets[i] and offsets[i + 1], each link being stored in both directions
+ * Neighbourhoods are views over the mapping, components are found by traversals of the mapped rows
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class MappedGraph implements Graph<Integer, AbstractSSet<Integer>> {
+
+    private static final int MAGIC = 0x4A4D4752;
+    private static final int HEADER_SIZE = 24;
+
+    private final MappedRegion region;
+    private final MappedIntSet vertices;
+    private final long offsets;
+    private final long targets;
+    private final long links;
+
+    private MappedGraph(MappedRegion region, int n, long links) {
+        this.region = region;
+        this.links = links;
+        vertices = new MappedIntSet(region, HEADER_SIZE, n);
+        offsets = align(HEADER_SIZE + 4L * n);
+        targets = offsets + 8L * (n + 1);
+    }
+
+    /**
+     * The header is checked against the length of the file and the offsets bounding the rows
+     *
+     * @param file the file written by write
+     * @return the graph mapped on the file
+     * @throws IOException if the file can't be mapped or does not hold a graph
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        final MappedRegion region = MappedRegion.map(file);
+        if (region.size() < HEADER_SIZE || region.getInt(0) != MAGIC)
+            throw new IOException("Not a mapped graph.");
+        final long n = region.getLong(8);
+        final long links = region.getLong(16);
+        if (n < 0 || n >= Integer.MAX_VALUE || links < 0)
+            throw new IOException("Corrupt mapped graph: " + n + " vertices and " + links + " links.");
+        final long offsets = align(HEADER_SIZE + 4L * n);
+        final long targets = offsets + 8L * (n + 1);
+        if (targets > region.size() || links > (region.size() - targets) / 4
+                || region.getLong(offsets) != 0 || region.getLong(offsets + 8L * n) != links)
+            throw new IOException("Corrupt mapped graph: rows out of the " + region.size() + " bytes of the file.");
+        return new MappedGraph(region, (int) n, links);
+    }
+
+    /**
+     * @param file  the file to write
+     * @param graph the graph to store
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path file, Graph<Integer, ?> graph) throws IOException {
+        final int[] vertices = graph.vertexSet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        final int n = vertices.length;
+
+        final long[] offsets = new long[n + 1];
+        for (Link<Integer> link : graph.edgeSet()) {
+            ++offsets[Arrays.binarySearch(vertices, link.head()) + 1];
+            if (!link.head().equals(link.tail()))
+                ++offsets[Arrays.binarySearch(vertices, link.tail()) + 1];
+        }
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+
+        final int[] targets = new int[Math.toIntExact(offsets[n])];
+        final long[] filled = Arrays.copyOf(offsets, n);
+        for (Link<Integer> link : graph.edgeSet()) {
+            targets[(int) filled[Arrays.binarySearch(vertices, link.head())]++] = link.tail();
+            if (!link.head().equals(link.tail()))
+                targets[(int) filled[Arrays.binarySearch(vertices, link.tail())]++] = link.head();
+        }
+        for (int i = 0; i < n; i++)
+            Arrays.sort(targets, (int) offsets[i], (int) offsets[i + 1]);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final BinaryWriter out = new BinaryWriter(channel, ByteOrder.LITTLE_ENDIAN);
+            out.writeInt(MAGIC);
+            out.writeInt(0);
+            out.writeLong(n);
+            out.writeLong(targets.length);
+            for (int v : vertices)
+                out.writeInt(v);
+            for (long i = HEADER_SIZE + 4L * n; i < align(HEADER_SIZE + 4L * n); i++)
+                out.writeByte(0);
+            for (long o : offsets)
+                out.writeLong(o);
+            for (int t : targets)
+                out.writeInt(t);
+            out.flush();
+        }
+    }
+
+    @Override
+    public Optional<AbstractSSet<Integer>> getNeighbours(Integer point) {
+        final int i = vertices.indexOf(point);
+        return i < 0 ? Optional.empty() : Optional.of(row(i));
+    }
+
+    /**
+     * @param point the vertex whose component to traverse
+     * @return the vertices of the component
+     */
+    private AbstractSSet<Integer> reachable(Integer point) {
+        final int start = vertices.indexOf(point);
+        if (start < 0)
+            return SSet.emptySet();
+        final BitSet visited = new BitSet(vertices.cardinality());
+        final Deque<Integer> toVisit = new ArrayDeque<>();
+        final SSet.Builder<Integer> component = SSet.builder();
+        visited.set(start);
+        toVisit.push(start);
+        while (!toVisit.isEmpty()) {
+            final int i = toVisit.pop();
+            component.add(vertices.intAt(i));
+            final MappedIntSet neighbours = row(i);
+            for (int k = 0; k < neighbours.cardinality(); k++) {
+                final int j = vertices.indexOf(neighbours.intAt(k));
+                if (!visited.get(j)) {
+                    visited.set(j);
+                    toVisit.push(j);
+                }
+            }
+        }
+        return component.build();
+    }
+
+    @Override
+    public boolean areConnected(Integer v1, Integer v2) {
+        return reachable(v1).contains(v2);
+    }
+
+    @Override
+    public Graph<Integer, ? extends AbstractSSet<Integer>> on(AbstractSSet<Integer> points) {
+        return new ConcreteGraph<>(components(), edgeSet()).on(points);
+    }
+
+    @Override
+    public Graph<Integer, AbstractSSet<Integer>> connectedComponent(Integer point) {
+        return new Component(reachable(point));
+    }
+
+    @Override
+    public AbstractSSet<Graph<Integer, AbstractSSet<Integer>>> connectedComponents() {
+        return components().components().image(Component::new);
+    }
+
+    /**
+     * @return the vertices partitioned by connected component
+     */
+    private PartitionSet<Integer> components() {
+        final BitSet seen = new BitSet(vertices.cardinality());
+        final List<AbstractSSet<Integer>> components = new ArrayList<>();
+        for (int i = seen.nextClearBit(0); i < vertices.cardinality(); i = seen.nextClearBit(i + 1)) {
+            final AbstractSSet<Integer> component = reachable(vertices.intAt(i));
+            component.forEach(v -> seen.set(vertices.indexOf(v)));
+            components.add(component);
+        }
+        return new PartitionSet<>(components);
+    }
+
+    @Override
+    public AbstractSSet<Link<Integer>> edgeSet() {
+        return linksFrom(vertices);
+    }
+
+    /**
+     * @param points the vertices whose links to gather
+     * @return the links between the given vertices, each stored once
+     */
+    private AbstractSSet<Link<Integer>> linksFrom(AbstractSSet<Integer> points) {
+        final SSet.Builder<Link<Integer>> edges = SSet.builder();
+        for (Integer v : points) {
+            final MappedIntSet neighbours = getNeighbours(v).map(MappedIntSet.class::cast).orElseThrow();
+            int k = neighbours.indexOf(v);
+            if (k < 0)
+                k = -k - 1;
+            for (; k < neighbours.cardinality(); k++) {
+                final int u = neighbours.intAt(k);
+                if (points == vertices || points.contains(u))
+                    edges.add(new Link<>(v, u));
+            }
+        }
+        return edges.build();
+    }
+
+    @Override
+    public MappedIntSet vertexSet() {
+        return vertices;
+    }
+
+    private MappedIntSet row(int i) {
+        final long from = region.getLong(offsets + 8L * i);
+        final long to = region.getLong(offsets + 8L * (i + 1));
+        if (from < 0 || from > to || to > links)
+            throw new IllegalStateException("Corrupt mapped graph: row " + i + " spans links " + from + " to " + to + ".");
+        return new MappedIntSet(region, targets + 4 * from, (int) (to - from));
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * A connected component of the mapped graph, sharing its mapped rows
+     */
+    private final class Component implements Graph<Integer, AbstractSSet<Integer>> {
+
+        private final AbstractSSet<Integer> points;
+
+        private Component(AbstractSSet<Integer> points) {
+            this.points = points;
+        }
+
+        @Override
+        public Optional<AbstractSSet<Integer>> getNeighbours(Integer point) {
+            return points.contains(point) ? MappedGraph.this.getNeighbours(point) : Optional.empty();
+        }
+
+        @Override
+        public Graph<Integer, ? extends AbstractSSet<Integer>> on(AbstractSSet<Integer> others) {
+            return MappedGraph.this.on(points.intersection(others));
+        }
+
+        @Override
+        public Graph<Integer, AbstractSSet<Integer>> connectedComponent(Integer point) {
+            return points.contains(point) ? this : new Component(SSet.emptySet());
+        }
+
+        @Override
+        public AbstractSSet<Graph<Integer, AbstractSSet<Integer>>> connectedComponents() {
+            return SSet.of(this);
+        }
+
+        @Override
+        public AbstractSSet<Link<Integer>> edgeSet() {
+            return linksFrom(points);
+        }
+
+        @Override
+        public AbstractSSet<Integer> vertexSet() {
+            return new PartitionSet<>(points);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package JavaSets.io;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A read only set of ints stored as a sorted array in a memory mapped file
+ * Opening it only maps the file, nothing is deserialized nor copied on the heap, and membership is a binary search
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class MappedIntSet extends MappedSortedSet<Integer> {
+
+    static final int MAGIC = 0x4A4D4953;
+
+    /**
+     * A view of size sorted ints starting at a given offset of a region
+     */
+    MappedIntSet(MappedRegion region, long start, int size) {
+        super(region, start, size);
+    }
+
+    /**
+     * @param file the file written by write
+     * @return the set mapped on the file
+     * @throws IOException if the file can't be mapped or does not hold a set of ints
+     */
+    public static MappedIntSet open(Path file) throws IOException {
+        final MappedRegion region = map(file, MAGIC, Integer.BYTES, "ints");
+        return new MappedIntSet(region, HEADER_SIZE, sizeOf(region));
+    }
+
+    /**
+     * @param file the file to write
+     * @param set  the set to store
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path file, AbstractSSet<Integer> set) throws IOException {
+        write(file, MAGIC, Integer.BYTES, set.stream().mapToLong(Integer::longValue).sorted().toArray());
+    }
+
+    /**
+     * @param i the position of the element in increasing order
+     * @return the element
+     */
+    public int intAt(int i) {
+        return region.getInt(start + 4L * i);
+    }
+
+    /**
+     * @param t the element to look for
+     * @return the position of t in increasing order if present, (-(insertion point) - 1) otherwise
+     */
+    public int indexOf(int t) {
+        return search(t);
+    }
+
+    /**
+     * @return the elements copied on the heap, in increasing order
+     */
+    public int[] toArray() {
+        final int[] result = new int[size];
+        Arrays.setAll(result, this::intAt);
+        return result;
+    }
+
+    @Override
+    long valueAt(int i) {
+        return intAt(i);
+    }
+
+    @Override
+    Integer box(long value) {
+        return (int) value;
+    }
+
+    @Override
+    boolean accepts(Object o) {
+        return o instanceof Integer;
+    }
+}
@@ -0,0 +1,85 @@
+package JavaSets.io;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A read only set of longs stored as a sorted array in a memory mapped file
+ * Opening it only maps the file, nothing is deserialized nor copied on the heap, and membership is a binary search
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class MappedLongSet extends MappedSortedSet<Long> {
+
+    static final int MAGIC = 0x4A4D4C53;
+
+    /**
+     * A view of size sorted longs starting at a given offset of a region
+     */
+    MappedLongSet(MappedRegion region, long start, int size) {
+        super(region, start, size);
+    }
+
+    /**
+     * @param file the file written by write
+     * @return the set mapped on the file
+     * @throws IOException if the file can't be mapped or does not hold a set of longs
+     */
+    public static MappedLongSet open(Path file) throws IOException {
+        final MappedRegion region = map(file, MAGIC, Long.BYTES, "longs");
+        return new MappedLongSet(region, HEADER_SIZE, sizeOf(region));
+    }
+
+    /**
+     * @param file the file to write
+     * @param set  the set to store
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path file, AbstractSSet<Long> set) throws IOException {
+        write(file, MAGIC, Long.BYTES, set.stream().mapToLong(Long::longValue).sorted().toArray());
+    }
+
+    /**
+     * @param i the position of the element in increasing order
+     * @return the element
+     */
+    public long longAt(int i) {
+        return region.getLong(start + 8L * i);
+    }
+
+    /**
+     * @param t the element to look for
+     * @return the position of t in increasing order if present, (-(insertion point) - 1) otherwise
+     */
+    public int indexOf(long t) {
+        return search(t);
+    }
+
+    /**
+     * @return the elements copied on the heap, in increasing order
+     */
+    public long[] toArray() {
+        final long[] result = new long[size];
+        Arrays.setAll(result, this::longAt);
+        return result;
+    }
+
+    @Override
+    long valueAt(int i) {
+        return longAt(i);
+    }
+
+    @Override
+    Long box(long value) {
+        return value;
+    }
+
+    @Override
+    boolean accepts(Object o) {
+        return o instanceof Long;
+    }
+}
@@ -0,0 +1,60 @@
+package JavaSets.io;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A whole file mapped read only in memory, in chunks of 1 GiB so that files of any size can be addressed
+ * Values are little endian and aligned on their size, so that none straddles two chunks
+ * The pages are shared through the page cache with every other process mapping the same file
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+final class MappedRegion {
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private MappedRegion(MappedByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * @param file the file to map
+     * @return the mapping of the whole file, which stays valid once the file is closed
+     * @throws IOException if the file can't be mapped
+     */
+    static MappedRegion map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long start = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << CHUNK_BITS));
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedRegion(chunks, size);
+        }
+    }
+
+    int getInt(long offset) {
+        return chunks[(int) (offset >>> CHUNK_BITS)].getInt((int) (offset & CHUNK_MASK));
+    }
+
+    long getLong(long offset) {
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    long size() {
+        return size;
+    }
+}
@@ -0,0 +1,206 @@
+package JavaSets.io;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.SSet;
+import JavaSets.sets.properties.Conjunction;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A read only set of integral values stored as a sorted array in a memory mapped file
+ * The file is a header of 16 bytes, holding a magic number, the width of the values and their number,
+ * followed by the little endian values in increasing order
+ * Subclasses only read and box the values of their width, the search, iteration and algebra being shared
+ *
+ * @param <T> the type of the values
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+abstract class MappedSortedSet<T extends Number> implements AbstractSSet<T> {
+
+    static final int HEADER_SIZE = 16;
+
+    final MappedRegion region;
+    final long start;
+    final int size;
+    private final Set<T> data = new DataView();
+
+    /**
+     * A view of size sorted values starting at a given offset of a region
+     */
+    MappedSortedSet(MappedRegion region, long start, int size) {
+        this.region = region;
+        this.start = start;
+        this.size = size;
+    }
+
+    /**
+     * @return the region of the file, once its header checked against the width of the values and the file length
+     */
+    static MappedRegion map(Path file, int magic, int width, String kind) throws IOException {
+        final MappedRegion region = MappedRegion.map(file);
+        if (region.size() < HEADER_SIZE || region.getInt(0) != magic || region.getInt(4) != width)
+            throw new IOException("Not a mapped set of " + kind + ".");
+        final long n = region.getLong(8);
+        if (n < 0 || n > Integer.MAX_VALUE || region.size() < HEADER_SIZE + width * n)
+            throw new IOException("Corrupt mapped set of " + kind + ": " + n + " values in " + region.size() + " bytes.");
+        return region;
+    }
+
+    /**
+     * @return the number of values of a mapped file, checked by map
+     */
+    static int sizeOf(MappedRegion region) {
+        return Math.toIntExact(region.getLong(8));
+    }
+
+    /**
+     * Writes the header then the values, on width bytes each
+     */
+    static void write(Path file, int magic, int width, long[] sorted) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final BinaryWriter out = new BinaryWriter(channel, ByteOrder.LITTLE_ENDIAN);
+            out.writeInt(magic);
+            out.writeInt(width);
+            out.writeLong(sorted.length);
+            for (long l : sorted) {
+                if (width == Integer.BYTES)
+                    out.writeInt((int) l);
+                else
+                    out.writeLong(l);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * @param i the position of the value in increasing order
+     * @return the value, widened to a long
+     */
+    abstract long valueAt(int i);
+
+    /**
+     * @param value a value read from the mapping
+     * @return the value boxed in the type of the elements
+     */
+    abstract T box(long value);
+
+    /**
+     * @param o any object
+     * @return whether o is of the type of the elements
+     */
+    abstract boolean accepts(Object o);
+
+    /**
+     * @param t the value to look for
+     * @return the position of t in increasing order if present, (-(insertion point) - 1) otherwise
+     */
+    final int search(long t) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long value = valueAt(mid);
+            if (value < t)
+                low = mid + 1;
+            else if (value > t)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return t != null && search(t.longValue()) >= 0;
+    }
+
+    @Override
+    public int cardinality() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public AbstractSSet<T> suchThat(Collection<Predicate<T>> t) {
+        final Conjunction<T> conjunction = Conjunction.compile(t, this);
+        return conjunction.source().stream().filter(conjunction).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<T> union(Collection<AbstractSSet<T>> others) {
+        return Stream.concat(stream(), others.stream().flatMap(AbstractSSet::stream)).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> powerSet() {
+        return AbstractSSet.powerSet(getData()).stream().map(SSet::new).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public Set<T> getData() {
+        return data;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public T next() {
+                if (i >= size)
+                    throw new NoSuchElementException();
+                return box(valueAt(i++));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+
+    /**
+     * The raw form of the set, a read only view over the mapping
+     */
+    private final class DataView extends AbstractSet<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return MappedSortedSet.this.iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return accepts(o) && search(((Number) o).longValue()) >= 0;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package JavaSets.io;
+
+import JavaSets.graphs.ConcreteGraph;
+import JavaSets.graphs.Graph;
+import JavaSets.graphs.Link;
+import JavaSets.sets.abstraction.AbstractOrderedTuple;
+import JavaSets.sets.abstraction.AbstractPartitionSet;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.OrderedTuple;
+import JavaSets.sets.concrete.PartitionSet;
+import JavaSets.sets.concrete.SSet;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for sets, tuples, partitions and graphs
+ * <p>
+ * Every structure starts with a header followed by a dictionary holding each element once, encoded by the codec.
+ * Elements are then referred to by their position in the dictionary: a partition stores its elements class by class
+ * so that only the sizes of the classes are needed, and a graph stores its links as compressed sparse rows,
+ * each vertex listing the delta encoded, increasing ids of its neighbours of greater or equal id.
+ * Reads and writes are streamed through a buffer, the structures are never encoded as a whole in memory.
+ * A reader buffers ahead of the structure it reads, so several structures written on the same channel must be read
+ * through the overloads sharing a single BinaryReader.
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class SetSerializer<T> {
+
+    private static final int MAGIC = 0x4A534554;
+    private static final int VERSION = 1;
+
+    /**
+     * Counts read are only trusted up to this size for presizing, larger ones growing as the elements are read
+     */
+    private static final int MAX_PRESIZE = 1 << 16;
+
+    private enum Kind {SET, TUPLE, PARTITION, GRAPH}
+
+    private final ElementCodec<T> codec;
+
+    /**
+     * @param codec the encoding of the elements
+     */
+    public SetSerializer(ElementCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * @param set     the set to write
+     * @param channel the channel to write on
+     * @throws IOException if the channel fails
+     */
+    public void writeSet(AbstractSSet<T> set, WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = header(Kind.SET, channel);
+        out.writeVarInt(set.cardinality());
+        for (T t : set)
+            codec.write(t, out);
+        out.flush();
+    }
+
+    /**
+     * @param channel the channel to read from, possibly read ahead past the structure
+     * @return the set read
+     * @throws IOException if the channel fails or does not hold a set
+     */
+    public SSet<T> readSet(ReadableByteChannel channel) throws IOException {
+        return readSet(new BinaryReader(channel));
+    }
+
+    /**
+     * @param in the reader to read from, left right after the set
+     * @return the set read
+     * @throws IOException if the channel fails or does not hold a set
+     */
+    public SSet<T> readSet(BinaryReader in) throws IOException {
+        header(Kind.SET, in);
+        final int n = in.readVarInt();
+        final SSet.Builder<T> builder = SSet.builder(Math.min(n, MAX_PRESIZE));
+        for (int i = 0; i < n; i++)
+            builder.add(codec.read(in));
+        return builder.build();
+    }
+
+    /**
+     * @param tuple   the tuple to write, its elements are stored in order
+     * @param channel the channel to write on
+     * @throws IOException if the channel fails
+     */
+    public void writeTuple(AbstractOrderedTuple<T> tuple, WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = header(Kind.TUPLE, channel);
+        final List<T> elements = tuple.toList();
+        out.writeVarInt(elements.size());
+        for (T t : elements)
+            codec.write(t, out);
+        out.flush();
+    }
+
+    /**
+     * @param channel the channel to read from, possibly read ahead past the structure
+     * @return the tuple read
+     * @throws IOException if the channel fails or does not hold a tuple
+     */
+    public OrderedTuple<T> readTuple(ReadableByteChannel channel) throws IOException {
+        return readTuple(new BinaryReader(channel));
+    }
+
+    /**
+     * @param in the reader to read from, left right after the tuple
+     * @return the tuple read
+     * @throws IOException if the channel fails or does not hold a tuple
+     */
+    public OrderedTuple<T> readTuple(BinaryReader in) throws IOException {
+        header(Kind.TUPLE, in);
+        return new OrderedTuple<>(readDictionary(in));
+    }
+
+    /**
+     * @param partition the partition to write
+     * @param channel   the channel to write on
+     * @throws IOException if the channel fails
+     */
+    public void writePartition(AbstractPartitionSet<T> partition, WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = header(Kind.PARTITION, channel);
+        writePartition(partition, out);
+        out.flush();
+    }
+
+    /**
+     * @param channel the channel to read from, possibly read ahead past the structure
+     * @return the partition read
+     * @throws IOException if the channel fails or does not hold a partition
+     */
+    public PartitionSet<T> readPartition(ReadableByteChannel channel) throws IOException {
+        return readPartition(new BinaryReader(channel));
+    }
+
+    /**
+     * @param in the reader to read from, left right after the partition
+     * @return the partition read
+     * @throws IOException if the channel fails or does not hold a partition
+     */
+    public PartitionSet<T> readPartition(BinaryReader in) throws IOException {
+        header(Kind.PARTITION, in);
+        return readPartition(readDictionary(in), in);
+    }
+
+    /**
+     * @param graph   the graph to write, with its components
+     * @param channel the channel to write on
+     * @throws IOException if the channel fails
+     */
+    public void writeGraph(Graph<T, ? extends AbstractPartitionSet<T>> graph, WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = header(Kind.GRAPH, channel);
+        final Map<T, Integer> ids = writePartition(graph.vertexSet(), out);
+        final int n = ids.size();
+
+        final int[] offsets = new int[n + 1];
+        for (Link<T> link : graph.edgeSet())
+            ++offsets[Math.min(ids.get(link.head()), ids.get(link.tail())) + 1];
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+
+        final int[] targets = new int[offsets[n]];
+        final int[] filled = Arrays.copyOf(offsets, n);
+        for (Link<T> link : graph.edgeSet()) {
+            final int a = ids.get(link.head());
+            final int b = ids.get(link.tail());
+            targets[filled[Math.min(a, b)]++] = Math.max(a, b);
+        }
+
+        out.writeVarInt(targets.length);
+        for (int i = 0; i < n; i++) {
+            Arrays.sort(targets, offsets[i], offsets[i + 1]);
+            out.writeVarInt(offsets[i + 1] - offsets[i]);
+            int previous = i;
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                out.writeVarInt(targets[j] - previous);
+                previous = targets[j];
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * @param channel the channel to read from, possibly read ahead past the structure
+     * @return the graph read, its components are restored without being recomputed
+     * @throws IOException if the channel fails or does not hold a graph
+     */
+    public ConcreteGraph<T> readGraph(ReadableByteChannel channel) throws IOException {
+        return readGraph(new BinaryReader(channel));
+    }
+
+    /**
+     * @param in the reader to read from, left right after the graph
+     * @return the graph read, its components are restored without being recomputed
+     * @throws IOException if the channel fails or does not hold a graph
+     */
+    public ConcreteGraph<T> readGraph(BinaryReader in) throws IOException {
+        header(Kind.GRAPH, in);
+        final List<T> dictionary = readDictionary(in);
+        final PartitionSet<T> vertices = readPartition(dictionary, in);
+
+        final SSet.Builder<Link<T>> edges = SSet.builder(Math.min(in.readVarInt(), MAX_PRESIZE));
+        for (int i = 0; i < dictionary.size(); i++) {
+            final int degree = in.readVarInt();
+            int target = i;
+            for (int j = 0; j < degree; j++) {
+                final int gap = in.readVarInt();
+                if (gap > dictionary.size() - 1 - target)
+                    throw new IOException("Link target out of the " + dictionary.size() + " vertices.");
+                target += gap;
+                edges.add(new Link<>(dictionary.get(i), dictionary.get(target)));
+            }
+        }
+        return new ConcreteGraph<>(vertices, edges.build());
+    }
+
+    /**
+     * Writes the dictionary class by class followed by the sizes of the classes
+     *
+     * @return the id of each element
+     */
+    private Map<T, Integer> writePartition(AbstractPartitionSet<T> partition, BinaryWriter out) throws IOException {
+        final Map<T, Integer> ids = new HashMap<>(Math.max(16, (int) (partition.cardinality() / 0.75f) + 1));
+        final List<Integer> sizes = new ArrayList<>(partition.numberOfComponents());
+        out.writeVarInt(partition.cardinality());
+        for (AbstractSSet<T> component : partition.components()) {
+            sizes.add(component.cardinality());
+            for (T t : component) {
+                ids.put(t, ids.size());
+                codec.write(t, out);
+            }
+        }
+        out.writeVarInt(sizes.size());
+        for (int size : sizes)
+            out.writeVarInt(size);
+        return ids;
+    }
+
+    private PartitionSet<T> readPartition(List<T> dictionary, BinaryReader in) throws IOException {
+        final int k = in.readVarInt();
+        final List<AbstractSSet<T>> components = new ArrayList<>(Math.min(k, MAX_PRESIZE));
+        int start = 0;
+        for (int i = 0; i < k; i++) {
+            final int size = in.readVarInt();
+            if (size > dictionary.size() - start)
+                throw new IOException("Class sizes exceed the " + dictionary.size() + " elements.");
+            components.add(SSet.<T>builder(size).addAll(dictionary.subList(start, start + size)).build());
+            start += size;
+        }
+        return new PartitionSet<>(components);
+    }
+
+    private List<T> readDictionary(BinaryReader in) throws IOException {
+        final int n = in.readVarInt();
+        final List<T> dictionary = new ArrayList<>(Math.min(n, MAX_PRESIZE));
+        for (int i = 0; i < n; i++)
+            dictionary.add(codec.read(in));
+        return dictionary;
+    }
+
+    private static BinaryWriter header(Kind kind, WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = new BinaryWriter(channel);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind.ordinal());
+        return out;
+    }
+
+    private static void header(Kind kind, BinaryReader in) throws IOException {
+        if (in.readInt() != MAGIC || in.readByte() != VERSION || in.readByte() != kind.ordinal())
+            throw new IOException("Not a serialized " + kind.name().toLowerCase() + ".");
+    }
+}
@@ -8,6 +8,7 @@ import java.util.function.BiFunction;
 
 /**
  * An ordered set with 2 possible values of 2 different types
+ * Only the true value and its position are stored, the optionals of the pair view are built on demand
  *
  * @author Alexandre Sallinen (303162)
  * @author Salim Najib (310003)
@@ -16,6 +17,9 @@ public final class OptionalPair<U, V> extends Pair<Optional<U>, Optional<V>> {
 
     public enum Position {LEFT, RIGHT}
 
+    private final Object value;
+    private final Position position;
+
     /**
      * Creates a new pair containing an element containing data and a dummy element
      *
@@ -23,7 +27,9 @@ public final class OptionalPair<U, V> extends Pair<Optional<U>, Optional<V>> {
      * @param v An element of type v, if null the other will be the true value
      */
     public OptionalPair(U u, V v) {
-        super(Objects.isNull(u) ? Optional.empty() : Optional.of(u), Objects.isNull(u) ? Optional.of(v) : Optional.empty());
+        super(null, null);
+        position = Objects.isNull(u) ? Position.RIGHT : Position.LEFT;
+        value = Objects.isNull(u) ? Objects.requireNonNull(v) : u;
     }
 
     public static <U, V>  OptionalPair<U, V> of(final Pair<U, V> c)
@@ -39,7 +45,7 @@ public final class OptionalPair<U, V> extends Pair<Optional<U>, Optional<V>> {
 
     public <A, B> OptionalPair<A, B> flatMap(BiFunction<U, V, OptionalPair<A,B>> function)
     {
-        return getTruePos() == Position.LEFT ? function.apply(getKey().get(), null) : function.apply(null, getValue().get());
+        return position == Position.LEFT ? function.apply(left(), null) : function.apply(null, right());
     }
 
     /**
@@ -47,7 +53,50 @@ public final class OptionalPair<U, V> extends Pair<Optional<U>, Optional<V>> {
      */
     public Position getTruePos()
     {
-        return getValue().isEmpty() ? Position.LEFT : Position.RIGHT;
+        return position;
+    }
+
+    /**
+     * @return the left value, null if the pair holds a right value
+     */
+    @SuppressWarnings("unchecked")
+    public U left() {
+        return position == Position.LEFT ? (U) value : null;
+    }
+
+    /**
+     * @return the right value, null if the pair holds a left value
+     */
+    @SuppressWarnings("unchecked")
+    public V right() {
+        return position == Position.RIGHT ? (V) value : null;
     }
 
+    @Override
+    public Optional<U> getKey() {
+        return Optional.ofNullable(left());
+    }
+
+    @Override
+    public Optional<V> getValue() {
+        return Optional.ofNullable(right());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OptionalPair)) return false;
+        final OptionalPair<?, ?> that = (OptionalPair<?, ?>) o;
+        return position == that.position && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return position == Position.LEFT ? value.hashCode() : ~value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getKey() + "=" + getValue();
+    }
 }
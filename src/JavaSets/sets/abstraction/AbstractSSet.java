@@ -1,13 +1,21 @@
 package JavaSets.sets.abstraction;
 
 import JavaSets.sets.OptionalPair;
+import JavaSets.sets.concrete.EncodedSet;
+import JavaSets.sets.concrete.OrderedTuple;
 import JavaSets.sets.concrete.SSet;
 import JavaSets.sets.properties.Equation;
+import JavaSets.sets.query.Query;
 import javafx.util.Pair;
 
 import java.util.*;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,6 +36,17 @@ public interface AbstractSSet<T> extends Iterable<T> {
         return f.apply(this);
     }
 
+    /**
+     * The image of this set by a function, computed by a parallel stream
+     *
+     * @param f   the function to apply, free of side effects
+     * @param <U> the codomain type
+     * @return the MathSet containing all the lements produced by f when applied on this set
+     */
+    default <U> AbstractSSet<U> parallelImage(SetFunction<T, U> f) {
+        return parallelStream().map(f).collect(SSet.toMathSet());
+    }
+
     default boolean contains(T t) {
         return getData().contains(t);
     }
@@ -36,11 +55,18 @@ public interface AbstractSSet<T> extends Iterable<T> {
         return getData().containsAll(other.getData());
     }
 
+    /**
+     * @return a lazily evaluated query on this set, allowing to explain the operations composed on it
+     */
+    default Query<T> query() {
+        return Query.of(this);
+    }
+
     /**
      * @return a useful predicate checking wether an element is in the set
      */
     default Equation<T> predicateContains() {
-        return this::contains;
+        return new Equation.Membership<>(this);
     }
 
     /**
@@ -53,6 +79,16 @@ public interface AbstractSSet<T> extends Iterable<T> {
         return suchThat(Collections.singletonList(equation));
     }
 
+    /**
+     * Allows to select elements according to a predicate, tested by a parallel stream
+     *
+     * @param equation the predicate that each element will have to respect, free of side effects
+     * @return the set of all elements in this set that complies to equation
+     */
+    default AbstractSSet<T> parallelSuchThat(Predicate<T> equation) {
+        return parallelStream().filter(equation).collect(SSet.toMathSet());
+    }
+
     /**
      * Allows to select elements according to predicates
      *
@@ -147,8 +183,10 @@ public interface AbstractSSet<T> extends Iterable<T> {
      * @return a set containing this set and others as copies inside him
      */
     default <U> AbstractSSet<OptionalPair<T, U>> directSum(Collection<AbstractSSet<U>> other) {
-        return image(t -> new OptionalPair<T, U>(t, null)).union(other.stream().map(s -> s.image(u -> new OptionalPair<T, U>(null, u)))
-                .collect(Collectors.toList()));
+        final SSet.Builder<OptionalPair<T, U>> builder = SSet.builder(cardinality() + other.stream().mapToInt(AbstractSSet::cardinality).sum());
+        forEach(t -> builder.add(new OptionalPair<>(t, null)));
+        other.forEach(s -> s.forEach(u -> builder.add(new OptionalPair<>(null, u))));
+        return builder.build();
     }
 
     /**
@@ -171,6 +209,114 @@ public interface AbstractSSet<T> extends Iterable<T> {
         return unionOf(image(t -> unionOf(other).image(u -> new Pair<>(t, u))));
     }
 
+    /**
+     * Hash join: pairs the elements of both sets having equal keys, without building the cartesian product
+     * The hash table is built on the smaller set and probed with the larger one
+     *
+     * @param other    the set to join with
+     * @param keyLeft  the key of the elements of this set
+     * @param keyRight the key of the elements of other
+     * @param <U>      the type of the other set
+     * @param <K>      the type of the keys
+     * @return the set of all pairs (t, u) such that keyLeft(t) equals keyRight(u)
+     */
+    default <U, K> AbstractSSet<Pair<T, U>> join(AbstractSSet<U> other, SetFunction<T, K> keyLeft, SetFunction<U, K> keyRight) {
+        if (cardinality() <= other.cardinality()) {
+            final Map<K, List<T>> table = stream().collect(Collectors.groupingBy(keyLeft));
+            return other.stream().flatMap(u -> table.getOrDefault(keyRight.apply(u), List.of()).stream()
+                    .map(t -> new Pair<>(t, u))).collect(SSet.toMathSet());
+        }
+        final Map<K, List<U>> table = other.stream().collect(Collectors.groupingBy(keyRight));
+        return stream().flatMap(t -> table.getOrDefault(keyLeft.apply(t), List.of()).stream()
+                .map(u -> new Pair<>(t, u))).collect(SSet.toMathSet());
+    }
+
+    /**
+     * Sort-merge join: pairs the elements of both sets having equal keys by merging both sets sorted by key
+     *
+     * @param other    the set to join with
+     * @param keyLeft  the key of the elements of this set
+     * @param keyRight the key of the elements of other
+     * @param <U>      the type of the other set
+     * @param <K>      the type of the keys
+     * @return the set of all pairs (t, u) such that keyLeft(t) equals keyRight(u)
+     */
+    default <U, K extends Comparable<? super K>> AbstractSSet<Pair<T, U>> sortMergeJoin(AbstractSSet<U> other, SetFunction<T, K> keyLeft, SetFunction<U, K> keyRight) {
+        final List<Pair<K, T>> left = stream().map(t -> new Pair<>(keyLeft.apply(t), t))
+                .sorted(Comparator.comparing(Pair::getKey)).collect(Collectors.toList());
+        final List<Pair<K, U>> right = other.stream().map(u -> new Pair<>(keyRight.apply(u), u))
+                .sorted(Comparator.comparing(Pair::getKey)).collect(Collectors.toList());
+
+        final Set<Pair<T, U>> result = new HashSet<>();
+        int i = 0, j = 0;
+        while (i < left.size() && j < right.size()) {
+            final int comp = left.get(i).getKey().compareTo(right.get(j).getKey());
+            if (comp < 0)
+                ++i;
+            else if (comp > 0)
+                ++j;
+            else {
+                final K key = left.get(i).getKey();
+                int end = j;
+                while (end < right.size() && right.get(end).getKey().compareTo(key) == 0)
+                    ++end;
+                for (; i < left.size() && left.get(i).getKey().compareTo(key) == 0; ++i)
+                    for (int k = j; k < end; ++k)
+                        result.add(new Pair<>(left.get(i).getValue(), right.get(k).getValue()));
+                j = end;
+            }
+        }
+        return new SSet<>(result);
+    }
+
+    /**
+     * Semi join
+     *
+     * @param other    the set to join with
+     * @param keyLeft  the key of the elements of this set
+     * @param keyRight the key of the elements of other
+     * @param <U>      the type of the other set
+     * @param <K>      the type of the keys
+     * @return the elements of this set whose key is the key of at least one element of other
+     */
+    default <U, K> AbstractSSet<T> semiJoin(AbstractSSet<U> other, SetFunction<T, K> keyLeft, SetFunction<U, K> keyRight) {
+        final Set<K> keys = other.stream().map(keyRight).collect(Collectors.toSet());
+        return suchThat(t -> keys.contains(keyLeft.apply(t)));
+    }
+
+    /**
+     * Anti join
+     *
+     * @param other    the set to join with
+     * @param keyLeft  the key of the elements of this set
+     * @param keyRight the key of the elements of other
+     * @param <U>      the type of the other set
+     * @param <K>      the type of the keys
+     * @return the elements of this set whose key is the key of no element of other
+     */
+    default <U, K> AbstractSSet<T> antiJoin(AbstractSSet<U> other, SetFunction<T, K> keyLeft, SetFunction<U, K> keyRight) {
+        final Set<K> keys = other.stream().map(keyRight).collect(Collectors.toSet());
+        return suchThat(t -> !keys.contains(keyLeft.apply(t)));
+    }
+
+    /**
+     * Grouped hash join
+     *
+     * @param other    the set to join with
+     * @param keyLeft  the key of the elements of this set
+     * @param keyRight the key of the elements of other
+     * @param <U>      the type of the other set
+     * @param <K>      the type of the keys
+     * @return the group of the elements of other matching each element of this set, empty for those matching none
+     */
+    default <U, K> Map<T, AbstractSSet<U>> groupJoin(AbstractSSet<U> other, SetFunction<T, K> keyLeft, SetFunction<U, K> keyRight) {
+        final Map<K, AbstractSSet<U>> table = other.stream()
+                .collect(Collectors.groupingBy(keyRight, Collectors.collectingAndThen(Collectors.toSet(), SSet::new)));
+        final Map<T, AbstractSSet<U>> groups = new HashMap<>(Math.max(16, (int) (cardinality() / 0.75f) + 1));
+        forEach(t -> groups.put(t, table.getOrDefault(keyLeft.apply(t), SSet.emptySet())));
+        return Collections.unmodifiableMap(groups);
+    }
+
     /**
      * Set theoric substraction
      *
@@ -239,12 +385,184 @@ public interface AbstractSSet<T> extends Iterable<T> {
         return getData().size() == 0;
     }
 
+    /**
+     * Groups the elements of this set by key, sequentially
+     *
+     * @param key the function computing the group of each element
+     * @param <K> the type of the keys
+     * @return the group of each key
+     */
+    default <K> Map<K, AbstractSSet<T>> groupBy(SetFunction<T, K> key) {
+        return aggregateBy(key, toGroup());
+    }
+
+    /**
+     * @param key the function computing the group of each element
+     * @param <K> the type of the keys
+     * @return the number of elements of each group, by key
+     */
+    default <K> Map<K, Long> countBy(SetFunction<T, K> key) {
+        return aggregateBy(key, Collectors.counting());
+    }
+
+    /**
+     * @param key   the function computing the group of each element
+     * @param value the value to sum
+     * @param <K>   the type of the keys
+     * @return the sum of the values of each group, by key
+     */
+    default <K> Map<K, Long> sumBy(SetFunction<T, K> key, ToLongFunction<T> value) {
+        return aggregateBy(key, Collectors.summingLong(value));
+    }
+
+    /**
+     * @param key   the function computing the group of each element
+     * @param value the value to average
+     * @param <K>   the type of the keys
+     * @return the average of the values of each group, by key
+     */
+    default <K> Map<K, Double> averageBy(SetFunction<T, K> key, ToDoubleFunction<T> value) {
+        return aggregateBy(key, Collectors.averagingDouble(value));
+    }
+
+    /**
+     * Count, sum, min, max and average of each group, accumulated on primitive longs in a single pass
+     *
+     * @param key   the function computing the group of each element
+     * @param value the value to summarize
+     * @param <K>   the type of the keys
+     * @return the statistics of the values of each group, by key
+     */
+    default <K> Map<K, LongSummaryStatistics> summarizingLongBy(SetFunction<T, K> key, ToLongFunction<T> value) {
+        return aggregateBy(key, Collectors.summarizingLong(value));
+    }
+
+    /**
+     * Count, sum, min, max and average of each group, accumulated on primitive doubles in a single pass
+     *
+     * @param key   the function computing the group of each element
+     * @param value the value to summarize
+     * @param <K>   the type of the keys
+     * @return the statistics of the values of each group, by key
+     */
+    default <K> Map<K, DoubleSummaryStatistics> summarizingDoubleBy(SetFunction<T, K> key, ToDoubleFunction<T> value) {
+        return aggregateBy(key, Collectors.summarizingDouble(value));
+    }
+
+    /**
+     * Reduces each group with a custom combiner
+     *
+     * @param key      the function computing the group of each element
+     * @param value    the value to aggregate, possibly null
+     * @param combiner an associative function combining two values
+     * @param <K>      the type of the keys
+     * @param <R>      the type of the aggregated values
+     * @return the aggregated value of each group, by key
+     */
+    default <K, R> Map<K, R> aggregateBy(SetFunction<T, K> key, SetFunction<T, R> value, BinaryOperator<R> combiner) {
+        return aggregateBy(key, reducing(value, combiner));
+    }
+
+    /**
+     * Reduces each group with a collector, sequentially
+     *
+     * @param key        the function computing the group of each element
+     * @param downstream the collector reducing the elements of a group
+     * @param <K>        the type of the keys
+     * @param <R>        the type of the aggregated values
+     * @return the aggregated value of each group, by key
+     */
+    default <K, R> Map<K, R> aggregateBy(SetFunction<T, K> key, Collector<? super T, ?, R> downstream) {
+        return Collections.unmodifiableMap(stream().collect(Collectors.groupingBy(key, downstream)));
+    }
+
+    /**
+     * Parallel version of groupBy, the key function running concurrently on the common pool
+     *
+     * @param key the function computing the group of each element
+     * @param <K> the type of the keys
+     * @return the group of each key
+     */
+    default <K> Map<K, AbstractSSet<T>> parallelGroupBy(SetFunction<T, K> key) {
+        return parallelAggregateBy(key, toGroup());
+    }
+
+    /**
+     * Parallel version of countBy
+     *
+     * @param key the function computing the group of each element
+     * @param <K> the type of the keys
+     * @return the number of elements of each group, by key
+     */
+    default <K> Map<K, Long> parallelCountBy(SetFunction<T, K> key) {
+        return parallelAggregateBy(key, Collectors.counting());
+    }
+
+    /**
+     * Parallel version of sumBy
+     *
+     * @param key   the function computing the group of each element
+     * @param value the value to sum
+     * @param <K>   the type of the keys
+     * @return the sum of the values of each group, by key
+     */
+    default <K> Map<K, Long> parallelSumBy(SetFunction<T, K> key, ToLongFunction<T> value) {
+        return parallelAggregateBy(key, Collectors.summingLong(value));
+    }
+
+    /**
+     * Parallel version of averageBy, the rounding of the sums depending on how the set is split
+     *
+     * @param key   the function computing the group of each element
+     * @param value the value to average
+     * @param <K>   the type of the keys
+     * @return the average of the values of each group, by key
+     */
+    default <K> Map<K, Double> parallelAverageBy(SetFunction<T, K> key, ToDoubleFunction<T> value) {
+        return parallelAggregateBy(key, Collectors.averagingDouble(value));
+    }
+
+    /**
+     * Parallel version of aggregateBy, the combiner running concurrently on the common pool
+     *
+     * @param key      the function computing the group of each element
+     * @param value    the value to aggregate, possibly null
+     * @param combiner an associative function combining two values
+     * @param <K>      the type of the keys
+     * @param <R>      the type of the aggregated values
+     * @return the aggregated value of each group, by key
+     */
+    default <K, R> Map<K, R> parallelAggregateBy(SetFunction<T, K> key, SetFunction<T, R> value, BinaryOperator<R> combiner) {
+        return parallelAggregateBy(key, reducing(value, combiner));
+    }
+
+    /**
+     * Parallel version of aggregateBy, each thread grouping its part and the partial groups being merged
+     *
+     * @param key        the function computing the group of each element
+     * @param downstream the collector reducing the elements of a group, which must be safe to run concurrently
+     * @param <K>        the type of the keys
+     * @param <R>        the type of the aggregated values
+     * @return the aggregated value of each group, by key
+     */
+    default <K, R> Map<K, R> parallelAggregateBy(SetFunction<T, K> key, Collector<? super T, ?, R> downstream) {
+        return Collections.unmodifiableMap(parallelStream().collect(Collectors.groupingBy(key, downstream)));
+    }
+
+    private static <T> Collector<T, ?, AbstractSSet<T>> toGroup() {
+        return Collectors.collectingAndThen(Collectors.toSet(), SSet::new);
+    }
+
+    private static <T, R> Collector<T, ?, R> reducing(SetFunction<T, R> value, BinaryOperator<R> combiner) {
+        return Collectors.mapping(value, Collectors.collectingAndThen(Collectors.reducing(combiner), r -> r.orElse(null)));
+    }
+
     /**
      * @param f the function needed to map to a comparable number
      * @return the minimal element according to f
      */
     default T minOf(SetFunction<T, Number> f) {
-        return stream().min(Comparator.comparingDouble(t -> f.apply(t).doubleValue())).orElseThrow();
+        return minOfDouble(t -> f.apply(t).doubleValue());
     }
 
     /**
@@ -252,7 +570,149 @@ public interface AbstractSSet<T> extends Iterable<T> {
      * @return the maximal element according to f
      */
     default T maxOf(SetFunction<T, Number> f) {
-        return stream().max(Comparator.comparingDouble(t -> f.apply(t).doubleValue())).orElseThrow();
+        return maxOfDouble(t -> f.apply(t).doubleValue());
+    }
+
+    /**
+     * @param f the function needed to map to an int, evaluated once per element
+     * @return the minimal element according to f
+     */
+    default T minOfInt(ToIntFunction<T> f) {
+        final Iterator<T> it = iterator();
+        T best = it.next();
+        int bestKey = f.applyAsInt(best);
+        while (it.hasNext()) {
+            final T t = it.next();
+            final int key = f.applyAsInt(t);
+            if (key < bestKey) {
+                best = t;
+                bestKey = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param f the function needed to map to an int, evaluated once per element
+     * @return the maximal element according to f
+     */
+    default T maxOfInt(ToIntFunction<T> f) {
+        return minOfInt(t -> ~f.applyAsInt(t));
+    }
+
+    /**
+     * @param f the function needed to map to a long, evaluated once per element
+     * @return the minimal element according to f
+     */
+    default T minOfLong(ToLongFunction<T> f) {
+        final Iterator<T> it = iterator();
+        T best = it.next();
+        long bestKey = f.applyAsLong(best);
+        while (it.hasNext()) {
+            final T t = it.next();
+            final long key = f.applyAsLong(t);
+            if (key < bestKey) {
+                best = t;
+                bestKey = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param f the function needed to map to a long, evaluated once per element
+     * @return the maximal element according to f
+     */
+    default T maxOfLong(ToLongFunction<T> f) {
+        return minOfLong(t -> ~f.applyAsLong(t));
+    }
+
+    /**
+     * @param f the function needed to map to a double, evaluated once per element
+     * @return the minimal element according to f
+     */
+    default T minOfDouble(ToDoubleFunction<T> f) {
+        final Iterator<T> it = iterator();
+        T best = it.next();
+        double bestKey = f.applyAsDouble(best);
+        while (it.hasNext()) {
+            final T t = it.next();
+            final double key = f.applyAsDouble(t);
+            if (Double.compare(key, bestKey) < 0) {
+                best = t;
+                bestKey = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param f the function needed to map to a double, evaluated once per element
+     * @return the maximal element according to f
+     */
+    default T maxOfDouble(ToDoubleFunction<T> f) {
+        final Iterator<T> it = iterator();
+        T best = it.next();
+        double bestKey = f.applyAsDouble(best);
+        while (it.hasNext()) {
+            final T t = it.next();
+            final double key = f.applyAsDouble(t);
+            if (Double.compare(key, bestKey) > 0) {
+                best = t;
+                bestKey = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Selects the k greatest elements with a bounded heap of primitive keys, each key being evaluated once
+     *
+     * @param k   the number of elements to select
+     * @param key the function needed to map to a comparable number
+     * @return the k elements of greatest key, by decreasing key
+     */
+    default AbstractOrderedTuple<T> topK(int k, ToDoubleFunction<T> key) {
+        return selectK(new BoundedHeap<>(k, false), key);
+    }
+
+    /**
+     * @param k   the number of elements to select
+     * @param key the function needed to map to a comparable number
+     * @return the k elements of smallest key, by increasing key
+     */
+    default AbstractOrderedTuple<T> bottomK(int k, ToDoubleFunction<T> key) {
+        return selectK(new BoundedHeap<>(k, true), key);
+    }
+
+    private AbstractOrderedTuple<T> selectK(BoundedHeap<T> heap, ToDoubleFunction<T> key) {
+        forEach(t -> heap.offer(t, key.applyAsDouble(t)));
+        return new OrderedTuple<>(heap.toList());
+    }
+
+    /**
+     * Parallel version of topK, each thread fills its own heap and the heaps are merged
+     *
+     * @param k   the number of elements to select
+     * @param key the function needed to map to a comparable number
+     * @return the k elements of greatest key, by decreasing key
+     */
+    default AbstractOrderedTuple<T> parallelTopK(int k, ToDoubleFunction<T> key) {
+        return parallelSelectK(k, false, key);
+    }
+
+    /**
+     * @param k   the number of elements to select
+     * @param key the function needed to map to a comparable number
+     * @return the k elements of smallest key, by increasing key
+     */
+    default AbstractOrderedTuple<T> parallelBottomK(int k, ToDoubleFunction<T> key) {
+        return parallelSelectK(k, true, key);
+    }
+
+    private AbstractOrderedTuple<T> parallelSelectK(int k, boolean smallest, ToDoubleFunction<T> key) {
+        return new OrderedTuple<>(parallelStream().collect(() -> new BoundedHeap<T>(k, smallest),
+                (heap, t) -> heap.offer(t, key.applyAsDouble(t)), BoundedHeap::merge).toList());
     }
 
     /**
@@ -277,18 +737,48 @@ public interface AbstractSSet<T> extends Iterable<T> {
      * @return A sett containing all elements from each sets
      */
     static <T> AbstractSSet<T> unionOf(AbstractSSet<AbstractSSet<T>> sets) {
-        return sets.getElement().orElse(SSet.emptySet()).union(sets.getData());
+        return unionOf(sets.getData());
     }
 
     /**
      * Set theoric union
+     * Sets encoded in a same domain are or-ed as bitmaps, small sets are concatenated in an array sized from their
+     * summed cardinalities, a few large sets are deduplicated in a table presized for the largest of them
+     * and many large sets are reduced pairwise in parallel, the larger partial union absorbing the smaller
+     * The result is always a new immutable set, even for a single set which may be mutable or carry an order
      *
      * @param sets the set to combine
      * @param <T>  the type of those sets
      * @return A sett containing all elements from each sets
      */
     static <T> AbstractSSet<T> unionOf(Collection<AbstractSSet<T>> sets) {
-        return unionOf(new SSet<>(sets));
+        if (sets.isEmpty())
+            return SSet.emptySet();
+        final AbstractSSet<T> first = sets.iterator().next();
+        if (first instanceof EncodedSet && sets.stream().allMatch(s -> s instanceof EncodedSet
+                && ((EncodedSet<T>) s).getDomain() == ((EncodedSet<T>) first).getDomain()))
+            return first.union(sets);
+
+        final long total = sets.stream().mapToLong(AbstractSSet::cardinality).sum();
+        if (total < (1 << 16)) {
+            final List<T> all = new ArrayList<>((int) total);
+            sets.forEach(s -> all.addAll(s.getData()));
+            return new SSet<>(all);
+        }
+        if (sets.size() < 64) {
+            final SSet.Builder<T> builder = SSet.builder(sets.stream().mapToInt(AbstractSSet::cardinality).max().orElse(0));
+            sets.forEach(builder::addAll);
+            return builder.build();
+        }
+        return new SSet<>(Collections.unmodifiableSet(sets.parallelStream().collect(Collector.<AbstractSSet<T>, Set<T>>of(HashSet::new,
+                (u, s) -> u.addAll(s.getData()), (u, v) -> {
+                    if (u.size() < v.size()) {
+                        v.addAll(u);
+                        return v;
+                    }
+                    u.addAll(v);
+                    return u;
+                }, Collector.Characteristics.UNORDERED))));
     }
 
     /**
@@ -305,7 +795,7 @@ public interface AbstractSSet<T> extends Iterable<T> {
 
     @Override
     default void forEach(Consumer<? super T> action) {
-        stream().forEach(action);
+        getData().forEach(action);
     }
 
     @Override
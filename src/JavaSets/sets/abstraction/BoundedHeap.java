@@ -0,0 +1,120 @@
+package JavaSets.sets.abstraction;
+
+import JavaSets.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A heap keeping the k elements of greatest key, or of smallest key when reversed, keys being stored as primitive doubles
+ * Keys are ordered as by Double.compare, NaN being the greatest, so that selections agree with minOf and maxOf
+ * Used by the top-k selections, it is mergeable so that each thread of a parallel stream can fill its own
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+final class BoundedHeap<T> {
+
+    private final double[] keys;
+    private final Object[] elements;
+    private final boolean reversed;
+    private int size;
+
+    /**
+     * @param k        the number of elements to keep
+     * @param reversed whether to keep the elements of smallest key instead
+     */
+    BoundedHeap(int k, boolean reversed) {
+        Preconditions.checkArgument(k >= 0);
+        keys = new double[k];
+        elements = new Object[k];
+        this.reversed = reversed;
+    }
+
+    /**
+     * Proposes an element to the heap, which keeps it only if it is among the k best so far
+     *
+     * @param t   the element
+     * @param key its key
+     */
+    void offer(T t, double key) {
+        if (size < keys.length) {
+            keys[size] = key;
+            elements[size] = t;
+            siftUp(size++);
+        } else if (size > 0 && compare(key, keys[0]) > 0) {
+            keys[0] = key;
+            elements[0] = t;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @param other the heap whose elements to offer to this heap
+     * @return this heap
+     */
+    @SuppressWarnings("unchecked")
+    BoundedHeap<T> merge(BoundedHeap<T> other) {
+        for (int i = 0; i < other.size; i++)
+            offer((T) other.elements[i], other.keys[i]);
+        return this;
+    }
+
+    /**
+     * @return the kept elements, best first
+     */
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (i, j) -> compare(keys[j], keys[i]));
+
+        final List<T> result = new ArrayList<>(size);
+        for (Integer i : order)
+            result.add((T) elements[i]);
+        return Collections.unmodifiableList(result);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (compare(keys[parent], keys[i]) <= 0)
+                return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= size)
+                return;
+            final int right = left + 1;
+            final int smallest = right < size && compare(keys[right], keys[left]) < 0 ? right : left;
+            if (compare(keys[i], keys[smallest]) <= 0)
+                return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    /**
+     * The order of the keys, the root of the heap being the worst kept element
+     */
+    private int compare(double a, double b) {
+        return reversed ? Double.compare(b, a) : Double.compare(a, b);
+    }
+
+    private void swap(int i, int j) {
+        final double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        final Object element = elements[i];
+        elements[i] = elements[j];
+        elements[j] = element;
+    }
+}
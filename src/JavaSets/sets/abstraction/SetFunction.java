@@ -1,5 +1,8 @@
 package JavaSets.sets.abstraction;
 
+import JavaSets.instrumentation.Instrumentation;
+import JavaSets.instrumentation.Operation;
+import JavaSets.sets.index.IndexedFunction;
 import JavaSets.sets.properties.Equation;
 import java.util.function.Function;
 
@@ -35,7 +38,20 @@ public interface SetFunction<T, U> extends Function<T, U> {
      * @return the set containing the image of all elements of set by this function
      */
     default AbstractSSet<U> apply(AbstractSSet<T> set) {
-        return set.stream().map(this).collect(toMathSet());
+        final long start = Instrumentation.start();
+        final AbstractSSet<U> result = set.stream().map(this).collect(toMathSet());
+        if (Instrumentation.ENABLED)
+            Instrumentation.record(Operation.IMAGE, start, set.cardinality(), result.cardinality());
+        return result;
+    }
+
+    /**
+     * Indexes the values of this function over a domain, pre-images then being answered without applying it again
+     * @param domain the elements whose values are indexed
+     * @return this function along with the pre-images of its values over domain
+     */
+    default IndexedFunction<T, U> indexOn(AbstractSSet<T> domain) {
+        return IndexedFunction.of(this, domain);
     }
 
     @Override
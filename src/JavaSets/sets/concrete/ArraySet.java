@@ -0,0 +1,185 @@
+package JavaSets.sets.concrete;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Immutable storage of a MathSet: the elements lie in a dense array, indexed by an open addressing table of positions
+ * Traversals run directly over the array and its spliterators split it in halves of exact sizes,
+ * so that parallel streams are balanced. Null is accepted as an element, like in the sets built by collectors.
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+final class ArraySet<T> extends AbstractSet<T> {
+
+    private static final ArraySet<?> EMPTY = new ArraySet<>(new Object[0], new int[1]);
+
+    /**
+     * The largest table, holding up to half as many elements
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+
+    /**
+     * The table built for a collection which may hold duplicates is first sized for at most this many elements,
+     * then grows with the number of distinct elements
+     */
+    private static final int INITIAL_CAPACITY = 1 << 11;
+
+    private final Object[] elements;
+    /**
+     * Position + 1 of the element hashed in each slot, 0 for an empty slot
+     */
+    private final int[] table;
+    private int hash;
+
+    private ArraySet(Object[] elements, int[] table) {
+        this.elements = elements;
+        this.table = table;
+    }
+
+    /**
+     * @param t the elements to store, duplicates being dropped
+     * @param <T> the type of the elements
+     * @return the set of the elements
+     * @throws IllegalArgumentException if there are more distinct elements than the largest table can index
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ArraySet<T> copyOf(Collection<? extends T> t) {
+        if (t instanceof ArraySet)
+            return (ArraySet<T>) t;
+        if (t.isEmpty())
+            return (ArraySet<T>) EMPTY;
+        final Object[] source = t.toArray();
+        int[] table = new int[tableSize(t instanceof Set ? source.length : Math.min(source.length, INITIAL_CAPACITY))];
+        int size = 0;
+        for (Object o : source) {
+            int slot = slotOf(source, table, o);
+            if (table[slot] == 0) {
+                if (2L * (size + 1) > table.length) {
+                    table = rehash(source, size, tableSize(size + 1L));
+                    slot = slotOf(source, table, o);
+                }
+                source[size] = o;
+                table[slot] = ++size;
+            }
+        }
+        return new ArraySet<>(size == source.length ? source : Arrays.copyOf(source, size), table);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        final int mask = table.length - 1;
+        int slot = mix(Objects.hashCode(o)) & mask;
+        while (table[slot] != 0) {
+            if (Objects.equals(elements[table[slot] - 1], o))
+                return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (i >= elements.length)
+                    throw new NoSuchElementException();
+                return (T) elements[i++];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (Object o : elements)
+            action.accept((T) o);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(elements, 0, elements.length, Spliterator.DISTINCT | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o instanceof ArraySet && hashCode() != o.hashCode()) return false;
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (Object o : elements)
+                h += Objects.hashCode(o);
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * @return the slot holding o, or the empty slot where it would be inserted
+     */
+    private static int slotOf(Object[] source, int[] table, Object o) {
+        final int mask = table.length - 1;
+        int slot = mix(Objects.hashCode(o)) & mask;
+        while (table[slot] != 0 && !Objects.equals(source[table[slot] - 1], o))
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * @return a table of the given size indexing the first size elements of source
+     */
+    private static int[] rehash(Object[] source, int size, int tableSize) {
+        final int[] table = new int[tableSize];
+        for (int i = 0; i < size; i++)
+            table[slotOf(source, table, source[i])] = i + 1;
+        return table;
+    }
+
+    /**
+     * @return the smallest power of two keeping the table at most half full
+     * @throws IllegalArgumentException if it exceeds the largest table
+     */
+    private static int tableSize(long size) {
+        final long tableSize = Long.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+        if (tableSize > MAX_TABLE_SIZE)
+            throw new IllegalArgumentException("Too many elements for a MathSet: " + size);
+        return (int) tableSize;
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,136 @@
+package JavaSets.sets.concrete;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.properties.Conjunction;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A mutable set allowing many threads to add, remove and look up elements concurrently
+ * Lookups never lock and updates only lock the bin of the element, so writers on different elements don't contend
+ * The algebra is computed on the elements present when it is called, use snapshot to freeze them into a MathSet
+ * Null elements are not permitted
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class ConcurrentSSet<T> implements AbstractSSet<T> {
+
+    private final Set<T> data;
+    private final Set<T> view;
+
+    /**
+     * Constructs an empty set
+     */
+    public ConcurrentSSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of elements the set is expected to hold, sizing the table once
+     */
+    public ConcurrentSSet(int expectedSize) {
+        data = ConcurrentHashMap.newKeySet(expectedSize);
+        view = Collections.unmodifiableSet(data);
+    }
+
+    /**
+     * @param t the initial elements
+     */
+    public ConcurrentSSet(AbstractSSet<T> t) {
+        this(t.cardinality());
+        data.addAll(t.getData());
+    }
+
+    /**
+     * @param t the element to add
+     * @return whether the element was absent
+     */
+    public boolean add(T t) {
+        return data.add(t);
+    }
+
+    /**
+     * @param t the elements to add
+     * @return whether the set changed
+     */
+    public boolean addAll(AbstractSSet<T> t) {
+        return data.addAll(t.getData());
+    }
+
+    /**
+     * @param t the element to remove
+     * @return whether the element was present
+     */
+    public boolean remove(T t) {
+        return data.remove(t);
+    }
+
+    /**
+     * @param t the elements to remove
+     * @return whether the set changed
+     */
+    public boolean removeAll(AbstractSSet<T> t) {
+        return data.removeAll(t.getData());
+    }
+
+    /**
+     * Freezes the current elements
+     *
+     * @return an immutable MathSet containing the elements present during the call
+     */
+    public SSet<T> snapshot() {
+        return new SSet<>(Set.copyOf(data));
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return data.contains(t);
+    }
+
+    /**
+     * Allows to select elements according to predicates
+     *
+     * @param t the predicates that each element will have to respect
+     * @return the immutable set of all elements in this set that complies to all t
+     */
+    @Override
+    public AbstractSSet<T> suchThat(Collection<Predicate<T>> t) {
+        final Conjunction<T> conjunction = Conjunction.compile(t, this);
+        return conjunction.source().stream().filter(conjunction).collect(SSet.toMathSet());
+    }
+
+    /**
+     * Set theoretical union
+     *
+     * @param others the Sets to union with
+     * @return An immutable set containing all elements that lies in one of the sets
+     */
+    @Override
+    public AbstractSSet<T> union(Collection<AbstractSSet<T>> others) {
+        return Stream.concat(stream(), others.stream().flatMap(AbstractSSet::stream)).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> powerSet() {
+        return snapshot().powerSet();
+    }
+
+    /**
+     * @return an unmodifiable, weakly consistent view of the elements
+     */
+    @Override
+    public Set<T> getData() {
+        return view;
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+}
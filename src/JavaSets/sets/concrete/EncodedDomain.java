@@ -0,0 +1,72 @@
+package JavaSets.sets.concrete;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent, append only dictionary mapping the elements of a domain to dense int ids
+ * Ids are given in order of first encoding and never change, so that sets encoded against the same domain
+ * can be combined as bitmaps of ids
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class EncodedDomain<T> {
+
+    private final Map<T, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Object[] values = new Object[16];
+    private int size;
+
+    /**
+     * @param t the element to encode, not null
+     * @return the id of t, given to it if it had none yet
+     */
+    public int encode(T t) {
+        final Integer id = ids.get(t);
+        return id != null ? id : ids.computeIfAbsent(t, this::append);
+    }
+
+    /**
+     * @param t the elements to encode
+     * @return the ids of the elements, in the iteration order of t
+     */
+    public int[] encodeAll(Collection<? extends T> t) {
+        return t.stream().mapToInt(this::encode).toArray();
+    }
+
+    /**
+     * @param t the element to look for
+     * @return the id of t, -1 if it was never encoded
+     */
+    public int idOf(Object t) {
+        final Integer id = t == null ? null : ids.get(t);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id an id given by this domain
+     * @return the element of that id
+     */
+    @SuppressWarnings("unchecked")
+    public T decode(int id) {
+        return (T) values[id];
+    }
+
+    /**
+     * @return the number of elements encoded so far
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized Integer append(T t) {
+        Object[] v = values;
+        if (size == v.length)
+            v = Arrays.copyOf(v, size + (size >> 1));
+        v[size] = t;
+        values = v;
+        return size++;
+    }
+}
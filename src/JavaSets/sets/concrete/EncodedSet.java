@@ -0,0 +1,254 @@
+package JavaSets.sets.concrete;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.properties.Conjunction;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * An immutable set storing only the ids of its elements in an encoded domain, as a bitmap
+ * Unions, intersections, substractions, inclusions and hashes between sets of the same domain are word level
+ * operations on the bitmaps, elements are only decoded when the set is traversed.
+ * Two encoded sets are equal iff they share their domain and hold the same ids.
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class EncodedSet<T> implements AbstractSSet<T> {
+
+    private final EncodedDomain<T> domain;
+    private final BitSet bits;
+    private final int size;
+    private final Set<T> data = new DataView();
+
+    private EncodedSet(EncodedDomain<T> domain, BitSet bits) {
+        this.domain = domain;
+        this.bits = bits;
+        this.size = bits.cardinality();
+    }
+
+    /**
+     * @param domain the domain encoding the elements
+     * @param t      the elements to store, encoded if they are not yet in the domain
+     * @param <T>    the type of the elements
+     * @return the encoded set of the elements
+     */
+    public static <T> EncodedSet<T> of(EncodedDomain<T> domain, Iterable<? extends T> t) {
+        final BitSet bits = new BitSet(domain.size());
+        for (T e : t)
+            bits.set(domain.encode(e));
+        return new EncodedSet<>(domain, bits);
+    }
+
+    /**
+     * @param domain the domain encoding the elements
+     * @param <T>    the type of the elements
+     * @return the empty set of the domain
+     */
+    public static <T> EncodedSet<T> empty(EncodedDomain<T> domain) {
+        return new EncodedSet<>(domain, new BitSet());
+    }
+
+    /**
+     * @param domain the domain encoding the elements
+     * @param <T>    the type of the elements
+     * @return A collector encoding the elements in the domain
+     */
+    public static <T> Collector<T, ?, EncodedSet<T>> toEncodedSet(EncodedDomain<T> domain) {
+        return Collector.of(BitSet::new, (b, t) -> b.set(domain.encode(t)), (b, c) -> {
+            b.or(c);
+            return b;
+        }, b -> new EncodedSet<>(domain, b), Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * @return the domain encoding the elements
+     */
+    public EncodedDomain<T> getDomain() {
+        return domain;
+    }
+
+    /**
+     * @return a copy of the ids of the elements
+     */
+    public BitSet ids() {
+        return (BitSet) bits.clone();
+    }
+
+    /**
+     * @param other the set to encode
+     * @return the ids of other in this domain if it can be combined word by word, null otherwise
+     */
+    private BitSet bitsOf(AbstractSSet<T> other) {
+        return other instanceof EncodedSet && ((EncodedSet<T>) other).domain == domain ? ((EncodedSet<T>) other).bits : null;
+    }
+
+    private static <T> EncodedSet<T> cast(AbstractSSet<T> t) {
+        return (EncodedSet<T>) t;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        final int id = domain.idOf(t);
+        return id >= 0 && bits.get(id);
+    }
+
+    @Override
+    public boolean containsSet(AbstractSSet<T> other) {
+        final BitSet b = bitsOf(other);
+        if (b == null)
+            return AbstractSSet.super.containsSet(other);
+        final BitSet extra = (BitSet) b.clone();
+        extra.andNot(bits);
+        return extra.isEmpty();
+    }
+
+    @Override
+    public AbstractSSet<T> intersection(AbstractSSet<T> other) {
+        final BitSet b = bitsOf(other);
+        if (b == null)
+            return AbstractSSet.super.intersection(other);
+        final BitSet result = (BitSet) bits.clone();
+        result.and(b);
+        return new EncodedSet<>(domain, result);
+    }
+
+    @Override
+    public AbstractSSet<T> intersection(Collection<AbstractSSet<T>> others) {
+        if (!others.stream().allMatch(s -> bitsOf(s) != null))
+            return AbstractSSet.super.intersection(others);
+        final BitSet result = (BitSet) bits.clone();
+        others.forEach(s -> result.and(cast(s).bits));
+        return new EncodedSet<>(domain, result);
+    }
+
+    @Override
+    public AbstractSSet<T> union(Collection<AbstractSSet<T>> others) {
+        if (!others.stream().allMatch(s -> bitsOf(s) != null))
+            return Stream.concat(stream(), others.stream().flatMap(AbstractSSet::stream)).collect(SSet.toMathSet());
+        final BitSet result = (BitSet) bits.clone();
+        others.forEach(s -> result.or(cast(s).bits));
+        return new EncodedSet<>(domain, result);
+    }
+
+    @Override
+    public AbstractSSet<T> minusSet(AbstractSSet<T> other) {
+        final BitSet b = bitsOf(other);
+        if (b == null)
+            return AbstractSSet.super.minusSet(other);
+        final BitSet result = (BitSet) bits.clone();
+        result.andNot(b);
+        return new EncodedSet<>(domain, result);
+    }
+
+    @Override
+    public EncodedSet<T> suchThat(Collection<Predicate<T>> t) {
+        final Conjunction<T> conjunction = Conjunction.compile(t, this);
+        if (conjunction.source() != this)
+            return conjunction.source().stream().filter(conjunction).collect(toEncodedSet(domain));
+        final BitSet result = new BitSet(bits.length());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            if (conjunction.test(domain.decode(i)))
+                result.set(i);
+        return new EncodedSet<>(domain, result);
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> powerSet() {
+        return AbstractSSet.powerSet(getData()).stream().map(SSet::new).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public Set<T> getData() {
+        return data;
+    }
+
+    @Override
+    public int cardinality() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return bits.stream().mapToObj(domain::decode);
+    }
+
+    @Override
+    public Stream<T> parallelStream() {
+        return stream().parallel();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public T next() {
+                if (next < 0)
+                    throw new NoSuchElementException();
+                final T t = domain.decode(next);
+                next = bits.nextSetBit(next + 1);
+                return t;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EncodedSet)) return false;
+        final EncodedSet<?> that = (EncodedSet<?>) o;
+        return domain == that.domain && bits.equals(that.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return bits.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+
+    /**
+     * The raw form of the set, decoding the elements while they are traversed
+     */
+    private final class DataView extends AbstractSet<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return EncodedSet.this.iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            final int id = domain.idOf(o);
+            return id >= 0 && bits.get(id);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package JavaSets.sets.concrete;
 
 import JavaSets.sets.abstraction.AbstractSSet;
 import JavaSets.sets.abstraction.AbstractPartitionSet;
+import JavaSets.sets.abstraction.SetFunction;
+import JavaSets.sets.index.IndexedFunction;
 import JavaSets.sets.properties.Relation;
 
 import java.util.Collection;
@@ -20,7 +22,7 @@ public class PartitionSet<T> extends SSet<T> implements AbstractPartitionSet<T>
      * @param data the underlying data
      */
     public PartitionSet(Collection<AbstractSSet<T>> data) {
-        super(AbstractSSet.unionOf(data).getData());
+        super(unionOf(data));
         components = new IndexedSet<>(data, elem -> data.stream().filter(subset -> subset.contains(elem)).findFirst().orElseThrow());
     }
 
@@ -42,6 +44,19 @@ public class PartitionSet<T> extends SSet<T> implements AbstractPartitionSet<T>
         this(data.image( (T elem1) -> areInRelation.partialApply(elem1).preImageOf(true).solveIn(data)).getData());
     }
 
+    /**
+     * The partition of a set into the pre-images of the values of a key, indexed once instead of comparing elements
+     * @param data the underlying data
+     * @param key the function whose values determine the equivalence classes
+     * @param <T> the type of the elements
+     * @param <K> the type of the keys
+     * @return the partition of data by the value of key
+     */
+    public static <T, K> PartitionSet<T> byKey(AbstractSSet<T> data, SetFunction<T, K> key) {
+        final IndexedFunction<T, K> index = key.indexOn(data);
+        return new PartitionSet<>(new IndexedSet<>(index.preImages().values(), (T elem) -> index.preImage(index.apply(elem))));
+    }
+
     /**
      * A single equivalence class Partition Set
      * @param t the MathSet to copy
@@ -50,6 +65,15 @@ public class PartitionSet<T> extends SSet<T> implements AbstractPartitionSet<T>
         this(Collections.singletonList(t));
     }
 
+    /**
+     * The classes are disjoint, their union is loaded in a single table sized by the sum of their cardinalities
+     */
+    private static <T> SSet<T> unionOf(Collection<AbstractSSet<T>> data) {
+        final Builder<T> builder = builder(data.stream().mapToInt(AbstractSSet::cardinality).sum());
+        data.forEach(builder::addAll);
+        return builder.build();
+    }
+
     /**
      * @return The set of all equivalence classes
      */
@@ -0,0 +1,675 @@
+package JavaSets.sets.concrete;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+/**
+ * An immutable set stored in a hash array mapped trie
+ * Adding or removing an element copies only the O(log32 n) nodes on its path, all the other nodes
+ * being shared with the previous version, and unions or substractions between two such sets reuse
+ * the subtrees they have in common instead of rehashing them
+ * Null elements are not permitted, null standing for an empty slot in the trie
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class PersistentSet<T> implements AbstractSSet<T> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Past this shift all the bits of the hash have been consumed and equal hashes are chained in a collision node
+     */
+    private static final int MAX_SHIFT = 30;
+
+    private static final PersistentSet<?> EMPTY = new PersistentSet<>(null, 0);
+
+    private final Node root;
+    private final int size;
+    private final Set<T> data = new DataView();
+    private int hash;
+
+    private PersistentSet(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param <T> Any type that is needed
+     * @return the persistent set with 0 elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentSet<T> empty() {
+        return (PersistentSet<T>) EMPTY;
+    }
+
+    /**
+     * @param t   the elements to store
+     * @param <T> the type of those elements
+     * @return A persistent set containing those elements
+     */
+    @SafeVarargs
+    public static <T> PersistentSet<T> of(T... t) {
+        PersistentSet<T> result = empty();
+        for (T e : t)
+            result = result.plus(e);
+        return result;
+    }
+
+    /**
+     * @param t   the set to copy, shared as is if it already is a persistent set
+     * @param <T> the type of the elements
+     * @return A persistent set containing the elements of t
+     */
+    public static <T> PersistentSet<T> copyOf(AbstractSSet<T> t) {
+        if (t instanceof PersistentSet)
+            return (PersistentSet<T>) t;
+        PersistentSet<T> result = empty();
+        for (T e : t)
+            result = result.plus(e);
+        return result;
+    }
+
+    /**
+     * A collector allowing to collect elements into a persistent set
+     *
+     * @param <T> the type of the future set
+     * @return The collector allowing to gather values as a persistent set
+     */
+    public static <T> Collector<T, ?, PersistentSet<T>> toPersistentSet() {
+        return Collector.of(() -> new Object[]{empty()},
+                (acc, t) -> acc[0] = PersistentSet.<T>cast(acc[0]).plus(t),
+                (a, b) -> new Object[]{PersistentSet.<T>cast(a[0]).union(PersistentSet.<T>cast(b[0]))},
+                acc -> cast(acc[0]), Collector.Characteristics.UNORDERED);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PersistentSet<T> cast(Object o) {
+        return (PersistentSet<T>) o;
+    }
+
+    /**
+     * @param t the element to add, not null
+     * @return the set containing all elements of this set and t, sharing all the unchanged nodes with this set
+     */
+    public PersistentSet<T> plus(T t) {
+        Objects.requireNonNull(t);
+        final int h = hashOf(t);
+        if (root == null)
+            return new PersistentSet<>(BitmapNode.of(t, h, 0), 1);
+        final Node newRoot = root.plus(t, h, 0);
+        return newRoot == root ? this : new PersistentSet<>(newRoot, size + 1);
+    }
+
+    /**
+     * @param other the element to substract
+     * @return the set containing all elements of this set except other, sharing all the unchanged nodes with this set
+     */
+    @Override
+    public PersistentSet<T> minus(T other) {
+        if (root == null)
+            return this;
+        final Object newRoot = root.minus(other, hashOf(other), 0);
+        if (newRoot == root)
+            return this;
+        return size == 1 ? empty() : new PersistentSet<>(asNode(newRoot, 0), size - 1);
+    }
+
+    /**
+     * Structural union, the subtrees both sets have in common are kept as is
+     *
+     * @param other the set to union with
+     * @return A persistent set containing all elements that lies in one of the sets
+     */
+    public PersistentSet<T> union(PersistentSet<T> other) {
+        if (other.root == null || other.root == root)
+            return this;
+        if (root == null)
+            return other;
+        final int[] common = new int[1];
+        final Object merged = union(root, other.root, 0, common);
+        return new PersistentSet<>(asNode(merged, 0), size + other.size - common[0]);
+    }
+
+    /**
+     * Set theoretical union
+     *
+     * @param others the Sets to union with
+     * @return A persistent set containing all elements that lies in one of the sets
+     */
+    @Override
+    public PersistentSet<T> union(Collection<AbstractSSet<T>> others) {
+        PersistentSet<T> result = this;
+        for (AbstractSSet<T> other : others) {
+            if (other instanceof PersistentSet)
+                result = result.union((PersistentSet<T>) other);
+            else
+                for (T t : other)
+                    result = result.plus(t);
+        }
+        return result;
+    }
+
+    /**
+     * Set theoric substraction, structural when other is a persistent set
+     *
+     * @param other the set to substract
+     * @return the set containing all elements of this set except those lying in other
+     */
+    @Override
+    public PersistentSet<T> minusSet(AbstractSSet<T> other) {
+        if (root == null || other.isEmpty())
+            return this;
+        if (other instanceof PersistentSet) {
+            final PersistentSet<T> that = (PersistentSet<T>) other;
+            if (that.root == root)
+                return empty();
+            final int[] removed = new int[1];
+            final Object remaining = difference(root, that.root, 0, removed);
+            if (removed[0] == 0)
+                return this;
+            return remaining == null ? empty() : new PersistentSet<>(asNode(remaining, 0), size - removed[0]);
+        }
+        PersistentSet<T> result = this;
+        for (T t : other)
+            result = result.minus(t);
+        return result;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return root != null && root.contains(t, hashOf(t), 0);
+    }
+
+    @Override
+    public PersistentSet<T> suchThat(Collection<Predicate<T>> t) {
+        PersistentSet<T> result = this;
+        for (T e : this)
+            for (Predicate<T> p : t)
+                if (!p.test(e)) {
+                    result = result.minus(e);
+                    break;
+                }
+        return result;
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> powerSet() {
+        return AbstractSSet.powerSet(getData()).stream().map(SSet::new).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public Set<T> getData() {
+        return data;
+    }
+
+    @Override
+    public int cardinality() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new TrieIterator<>(root);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PersistentSet)) return false;
+        final PersistentSet<?> that = (PersistentSet<?>) o;
+        return size == that.size && hashCode() == that.hashCode() && data.equals(that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && size != 0) {
+            h = Objects.hash(data);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return data.toString();
+    }
+
+    private static int hashOf(Object o) {
+        final int h = Objects.hashCode(o);
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    /**
+     * Wraps a lone element left by a removal back into a node
+     */
+    private static Node asNode(Object o, int shift) {
+        return o instanceof Node ? (Node) o : BitmapNode.of(o, hashOf(o), shift);
+    }
+
+    /**
+     * A slot is either an element or a sub node, sub nodes are never exposed so they can't be confused with elements
+     */
+    private static Object union(Object a, Object b, int shift, int[] common) {
+        if (a == b) {
+            common[0] += a instanceof Node ? ((Node) a).size() : 1;
+            return a;
+        }
+        if (a instanceof Node && b instanceof Node)
+            return ((Node) a).union((Node) b, shift, common);
+        if (a instanceof Node)
+            return plusCounting((Node) a, b, shift, common);
+        if (b instanceof Node)
+            return plusCounting((Node) b, a, shift, common);
+        if (Objects.equals(a, b)) {
+            ++common[0];
+            return a;
+        }
+        return BitmapNode.of(a, hashOf(a), shift).plus(b, hashOf(b), shift);
+    }
+
+    private static Node plusCounting(Node node, Object t, int shift, int[] common) {
+        final Node result = node.plus(t, hashOf(t), shift);
+        if (result == node)
+            ++common[0];
+        return result;
+    }
+
+    /**
+     * @return the remaining slot, null if nothing remains
+     */
+    private static Object difference(Object a, Object b, int shift, int[] removed) {
+        if (a == b) {
+            removed[0] += a instanceof Node ? ((Node) a).size() : 1;
+            return null;
+        }
+        if (a instanceof Node && b instanceof Node)
+            return ((Node) a).difference((Node) b, shift, removed);
+        if (a instanceof Node) {
+            final Object result = ((Node) a).minus(b, hashOf(b), shift);
+            if (result != a)
+                ++removed[0];
+            return result;
+        }
+        if (b instanceof Node ? ((Node) b).contains(a, hashOf(a), shift) : Objects.equals(a, b)) {
+            ++removed[0];
+            return null;
+        }
+        return a;
+    }
+
+    private abstract static class Node {
+
+        abstract boolean contains(Object t, int hash, int shift);
+
+        /**
+         * @return this node if t is already present
+         */
+        abstract Node plus(Object t, int hash, int shift);
+
+        /**
+         * @return this node if t is absent, null if the node becomes empty, the lone element if only one remains
+         */
+        abstract Object minus(Object t, int hash, int shift);
+
+        abstract Object union(Node other, int shift, int[] common);
+
+        abstract Object difference(Node other, int shift, int[] removed);
+
+        abstract int size();
+
+        abstract int slotCount();
+
+        abstract Object slot(int i);
+    }
+
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+        private final Object[] slots;
+        private final int size;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+            int s = 0;
+            for (Object slot : slots)
+                s += slot instanceof Node ? ((Node) slot).size() : 1;
+            this.size = s;
+        }
+
+        static Node of(Object t, int hash, int shift) {
+            if (shift > MAX_SHIFT)
+                return new CollisionNode(new Object[]{t});
+            return new BitmapNode(1 << ((hash >>> shift) & MASK), new Object[]{t});
+        }
+
+        @Override
+        boolean contains(Object t, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return false;
+            final Object slot = slots[index(bitmap, bit)];
+            return slot instanceof Node ? ((Node) slot).contains(t, hash, shift + BITS) : Objects.equals(slot, t);
+        }
+
+        @Override
+        Node plus(Object t, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            final int i = index(bitmap, bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, i);
+                copy[i] = t;
+                System.arraycopy(slots, i, copy, i + 1, slots.length - i);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            final Object slot = slots[i];
+            final Object replacement;
+            if (slot instanceof Node) {
+                replacement = ((Node) slot).plus(t, hash, shift + BITS);
+            } else if (Objects.equals(slot, t)) {
+                return this;
+            } else {
+                replacement = of(slot, hashOf(slot), shift + BITS).plus(t, hash, shift + BITS);
+            }
+            if (replacement == slot)
+                return this;
+            final Object[] copy = slots.clone();
+            copy[i] = replacement;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Object minus(Object t, int hash, int shift) {
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return this;
+            final int i = index(bitmap, bit);
+            final Object slot = slots[i];
+            final Object replacement;
+            if (slot instanceof Node) {
+                replacement = ((Node) slot).minus(t, hash, shift + BITS);
+                if (replacement == slot)
+                    return this;
+            } else if (Objects.equals(slot, t)) {
+                replacement = null;
+            } else {
+                return this;
+            }
+            return with(bit, replacement);
+        }
+
+        /**
+         * @return this node where the slot of the given bit is replaced, null removing it
+         */
+        private Object with(int bit, Object replacement) {
+            final int i = index(bitmap, bit);
+            if (replacement != null || (bitmap & bit) == 0) {
+                final Object[] copy = slots.clone();
+                copy[i] = replacement;
+                return new BitmapNode(bitmap, copy);
+            }
+            if (slots.length == 1)
+                return null;
+            if (slots.length == 2 && !(slots[1 - i] instanceof Node))
+                return slots[1 - i];
+            final Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, i);
+            System.arraycopy(slots, i + 1, copy, i, slots.length - i - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        @Override
+        Object union(Node other, int shift, int[] common) {
+            final BitmapNode that = (BitmapNode) other;
+            final int merged = bitmap | that.bitmap;
+            final Object[] copy = new Object[Integer.bitCount(merged)];
+            boolean sameAsThis = merged == bitmap;
+            for (int bits = merged, j = 0; bits != 0; bits &= bits - 1, ++j) {
+                final int bit = bits & -bits;
+                if ((that.bitmap & bit) == 0)
+                    copy[j] = slots[index(bitmap, bit)];
+                else if ((bitmap & bit) == 0)
+                    copy[j] = that.slots[index(that.bitmap, bit)];
+                else {
+                    final Object mine = slots[index(bitmap, bit)];
+                    copy[j] = PersistentSet.union(mine, that.slots[index(that.bitmap, bit)], shift + BITS, common);
+                    sameAsThis &= copy[j] == mine;
+                }
+            }
+            return sameAsThis ? this : new BitmapNode(merged, copy);
+        }
+
+        @Override
+        Object difference(Node other, int shift, int[] removed) {
+            final BitmapNode that = (BitmapNode) other;
+            if ((bitmap & that.bitmap) == 0)
+                return this;
+            final Object[] kept = new Object[slots.length];
+            int keptBitmap = 0;
+            int n = 0;
+            boolean changed = false;
+            for (int bits = bitmap; bits != 0; bits &= bits - 1) {
+                final int bit = bits & -bits;
+                final Object mine = slots[index(bitmap, bit)];
+                final Object remaining = (that.bitmap & bit) == 0 ? mine
+                        : PersistentSet.difference(mine, that.slots[index(that.bitmap, bit)], shift + BITS, removed);
+                changed |= remaining != mine;
+                if (remaining != null) {
+                    keptBitmap |= bit;
+                    kept[n++] = remaining;
+                }
+            }
+            if (!changed)
+                return this;
+            if (n == 0)
+                return null;
+            if (n == 1 && !(kept[0] instanceof Node))
+                return kept[0];
+            return new BitmapNode(keptBitmap, Arrays.copyOf(kept, n));
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        int slotCount() {
+            return slots.length;
+        }
+
+        @Override
+        Object slot(int i) {
+            return slots[i];
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+
+        private final Object[] elements;
+
+        private CollisionNode(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        boolean contains(Object t, int hash, int shift) {
+            for (Object e : elements)
+                if (Objects.equals(e, t))
+                    return true;
+            return false;
+        }
+
+        @Override
+        Node plus(Object t, int hash, int shift) {
+            if (contains(t, hash, shift))
+                return this;
+            final Object[] copy = new Object[elements.length + 1];
+            System.arraycopy(elements, 0, copy, 0, elements.length);
+            copy[elements.length] = t;
+            return new CollisionNode(copy);
+        }
+
+        @Override
+        Object minus(Object t, int hash, int shift) {
+            for (int i = 0; i < elements.length; i++) {
+                if (Objects.equals(elements[i], t)) {
+                    if (elements.length == 1)
+                        return null;
+                    if (elements.length == 2)
+                        return elements[1 - i];
+                    final Object[] copy = new Object[elements.length - 1];
+                    System.arraycopy(elements, 0, copy, 0, i);
+                    System.arraycopy(elements, i + 1, copy, i, elements.length - i - 1);
+                    return new CollisionNode(copy);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Object union(Node other, int shift, int[] common) {
+            Node result = this;
+            for (Object e : ((CollisionNode) other).elements)
+                result = plusCounting(result, e, shift, common);
+            return result;
+        }
+
+        @Override
+        Object difference(Node other, int shift, int[] removed) {
+            Object result = this;
+            for (Object e : ((CollisionNode) other).elements) {
+                if (!(result instanceof Node)) {
+                    if (!Objects.equals(result, e))
+                        continue;
+                    ++removed[0];
+                    return null;
+                }
+                final Object next = ((Node) result).minus(e, 0, shift);
+                if (next != result)
+                    ++removed[0];
+                result = next;
+                if (result == null)
+                    return null;
+            }
+            return result;
+        }
+
+        @Override
+        int size() {
+            return elements.length;
+        }
+
+        @Override
+        int slotCount() {
+            return elements.length;
+        }
+
+        @Override
+        Object slot(int i) {
+            return elements[i];
+        }
+    }
+
+    /**
+     * Depth first traversal of the trie
+     */
+    private static final class TrieIterator<T> implements Iterator<T> {
+
+        private final Deque<Node> nodes = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Object next;
+        private boolean hasNext;
+
+        TrieIterator(Node root) {
+            if (root != null) {
+                nodes.push(root);
+                positions.push(0);
+            }
+            advance();
+        }
+
+        private void advance() {
+            hasNext = false;
+            while (!nodes.isEmpty()) {
+                final Node node = nodes.peek();
+                final int i = positions.pop();
+                if (i == node.slotCount()) {
+                    nodes.pop();
+                    continue;
+                }
+                positions.push(i + 1);
+                final Object slot = node.slot(i);
+                if (slot instanceof Node) {
+                    nodes.push((Node) slot);
+                    positions.push(0);
+                } else {
+                    next = slot;
+                    hasNext = true;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext)
+                throw new NoSuchElementException();
+            final T result = (T) next;
+            advance();
+            return result;
+        }
+    }
+
+    /**
+     * The raw form of the set, a read only view over the trie
+     */
+    private final class DataView extends AbstractSet<T> {
+
+        @Override
+        public Iterator<T> iterator() {
+            return PersistentSet.this.iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            return PersistentSet.this.contains((T) o);
+        }
+    }
+}
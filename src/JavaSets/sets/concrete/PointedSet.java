@@ -30,7 +30,7 @@ public abstract class PointedSet<T> extends SSet<T> {
      * @param special the element to remember
      */
     public PointedSet(AbstractSSet<T> t, T special) {
-        super(t.getData());
+        super(t);
         this.special = special;
     }
 
@@ -40,7 +40,7 @@ public abstract class PointedSet<T> extends SSet<T> {
      * @param t the special element
      */
     public PointedSet(PointedSet<T> t) {
-        super(t.getData());
+        super(t);
         this.special = t.special;
     }
 
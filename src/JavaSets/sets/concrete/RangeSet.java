@@ -0,0 +1,449 @@
+package JavaSets.sets.concrete;
+
+import JavaSets.Preconditions;
+import JavaSets.sets.abstraction.AbstractOrderedSet;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.properties.Conjunction;
+import JavaSets.sets.properties.Relation;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * An immutable set of longs stored as sorted, disjoint and non adjacent closed intervals
+ * Membership is a binary search over the intervals, unions, intersections and substractions between range sets are
+ * merges linear in the number of intervals, and the elements are only enumerated when the set is traversed.
+ * Operands which are not range sets are read instead of this set, so that their cost is linear in the other side.
+ * The intervals being sorted and disjoint, the array of their starts is searched directly for stabbing and overlap
+ * queries, as an interval tree would be.
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class RangeSet implements AbstractOrderedSet<Long> {
+
+    private static final RangeSet EMPTY = new RangeSet(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long count;
+    private final Set<Long> data = new DataView();
+
+    private RangeSet(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+        long c = 0;
+        for (int i = 0; i < starts.length && c >= 0; i++)
+            c += ends[i] - starts[i] + 1;
+        this.count = c < 0 || starts.length > 0 && c == 0 ? Long.MAX_VALUE : c;
+    }
+
+    /**
+     * @return the range set with no element
+     */
+    public static RangeSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param from the first element
+     * @param to   the last element, included
+     * @return the set of the longs between from and to
+     */
+    public static RangeSet closed(long from, long to) {
+        Preconditions.checkArgument(from <= to);
+        return new RangeSet(new long[]{from}, new long[]{to});
+    }
+
+    /**
+     * @param set the set to copy
+     * @return the range set of the elements of set, consecutive elements being grouped in intervals
+     */
+    public static RangeSet copyOf(AbstractSSet<Long> set) {
+        if (set instanceof RangeSet)
+            return (RangeSet) set;
+        return of(set.stream());
+    }
+
+    private static RangeSet of(Stream<Long> elements) {
+        final long[] sorted = elements.mapToLong(Long::longValue).sorted().toArray();
+        return normalize(sorted, sorted.clone(), sorted.length);
+    }
+
+    /**
+     * @param starts the starts of the intervals
+     * @param ends   the ends of the intervals, included
+     * @return the range set of the union of the intervals
+     */
+    public static RangeSet ofRanges(long[] starts, long[] ends) {
+        Preconditions.checkArgument(starts.length == ends.length);
+        final Integer[] order = IntStream.range(0, starts.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+        final long[] s = new long[starts.length];
+        final long[] e = new long[starts.length];
+        for (int i = 0; i < order.length; i++) {
+            Preconditions.checkArgument(starts[order[i]] <= ends[order[i]]);
+            s[i] = starts[order[i]];
+            e[i] = ends[order[i]];
+        }
+        return normalize(s, e, s.length);
+    }
+
+    /**
+     * Coalesces intervals sorted by start which may overlap or touch
+     */
+    private static RangeSet normalize(long[] s, long[] e, int n) {
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size > 0 && (e[size - 1] == Long.MAX_VALUE || s[i] <= e[size - 1] + 1))
+                e[size - 1] = Math.max(e[size - 1], e[i]);
+            else {
+                s[size] = s[i];
+                e[size] = e[i];
+                ++size;
+            }
+        }
+        return size == 0 ? EMPTY : new RangeSet(Arrays.copyOf(s, size), Arrays.copyOf(e, size));
+    }
+
+    /**
+     * @return the number of elements, which may exceed cardinality, saturated at Long.MAX_VALUE
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the number of disjoint intervals
+     */
+    public int numberOfRanges() {
+        return starts.length;
+    }
+
+    /**
+     * @param x the point to stab
+     * @return the interval holding x, as its first and last elements
+     */
+    public Optional<long[]> rangeContaining(long x) {
+        final int i = indexOf(x);
+        return i < 0 ? Optional.empty() : Optional.of(new long[]{starts[i], ends[i]});
+    }
+
+    /**
+     * @param from the first element
+     * @param to   the last element, included
+     * @return the elements of this set lying between from and to
+     */
+    public RangeSet overlapping(long from, long to) {
+        if (from > to || starts.length == 0)
+            return EMPTY;
+        int first = floor(from);
+        if (first < 0 || ends[first] < from)
+            ++first;
+        final int last = floor(to);
+        if (first > last)
+            return EMPTY;
+        final long[] s = Arrays.copyOfRange(starts, first, last + 1);
+        final long[] e = Arrays.copyOfRange(ends, first, last + 1);
+        s[0] = Math.max(s[0], from);
+        e[e.length - 1] = Math.min(e[e.length - 1], to);
+        return new RangeSet(s, e);
+    }
+
+    /**
+     * @return the index of the last interval starting at or before x, -1 if there is none
+     */
+    private int floor(long x) {
+        final int i = Arrays.binarySearch(starts, x);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * @return the index of the interval holding x, -1 if there is none
+     */
+    private int indexOf(long x) {
+        final int i = floor(x);
+        return i >= 0 && x <= ends[i] ? i : -1;
+    }
+
+    @Override
+    public boolean contains(Long t) {
+        return t != null && indexOf(t) >= 0;
+    }
+
+    @Override
+    public boolean containsSet(AbstractSSet<Long> other) {
+        if (!(other instanceof RangeSet))
+            return AbstractOrderedSet.super.containsSet(other);
+        final RangeSet o = (RangeSet) other;
+        for (int i = 0; i < o.starts.length; i++) {
+            final int j = indexOf(o.starts[i]);
+            if (j < 0 || ends[j] < o.ends[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param others the sets to union with, those which are not range sets being copied into one
+     * @return the range set of the elements lying in one of the sets
+     */
+    @Override
+    public RangeSet union(Collection<AbstractSSet<Long>> others) {
+        RangeSet result = this;
+        for (AbstractSSet<Long> other : others)
+            result = result.union(copyOf(other));
+        return result;
+    }
+
+    /**
+     * @param other the range set to union with
+     * @return the range set of the elements lying in one of both
+     */
+    public RangeSet union(RangeSet other) {
+        final int n = starts.length + other.starts.length;
+        final long[] s = new long[n];
+        final long[] e = new long[n];
+        for (int i = 0, j = 0, k = 0; k < n; k++) {
+            if (j == other.starts.length || i < starts.length && starts[i] <= other.starts[j]) {
+                s[k] = starts[i];
+                e[k] = ends[i++];
+            } else {
+                s[k] = other.starts[j];
+                e[k] = other.ends[j++];
+            }
+        }
+        return normalize(s, e, n);
+    }
+
+    /**
+     * @param other the set to intersect with, filtered by membership to this set if it is not a range set
+     * @return the range set of the elements lying in both
+     */
+    @Override
+    public RangeSet intersection(AbstractSSet<Long> other) {
+        return other instanceof RangeSet ? intersection((RangeSet) other) : of(other.stream().filter(this::contains));
+    }
+
+    /**
+     * @param others the sets to intersect with
+     * @return the range set of the elements lying in all the sets
+     */
+    @Override
+    public RangeSet intersection(Collection<AbstractSSet<Long>> others) {
+        RangeSet result = this;
+        for (AbstractSSet<Long> other : others)
+            result = result.intersection(other);
+        return result;
+    }
+
+    /**
+     * @param other the range set to intersect with
+     * @return the range set of the elements lying in both
+     */
+    public RangeSet intersection(RangeSet other) {
+        final long[] s = new long[starts.length + other.starts.length];
+        final long[] e = new long[s.length];
+        int n = 0;
+        for (int i = 0, j = 0; i < starts.length && j < other.starts.length; ) {
+            final long from = Math.max(starts[i], other.starts[j]);
+            final long to = Math.min(ends[i], other.ends[j]);
+            if (from <= to) {
+                s[n] = from;
+                e[n++] = to;
+            }
+            if (ends[i] < other.ends[j])
+                ++i;
+            else
+                ++j;
+        }
+        return n == 0 ? EMPTY : new RangeSet(Arrays.copyOf(s, n), Arrays.copyOf(e, n));
+    }
+
+    /**
+     * @param other the set to substract, copied into a range set if it is not one
+     * @return the range set of the elements of this set not lying in other
+     */
+    @Override
+    public RangeSet minusSet(AbstractSSet<Long> other) {
+        return minusSet(copyOf(other));
+    }
+
+    /**
+     * @param other the range set to substract
+     * @return the range set of the elements of this set not lying in other
+     */
+    public RangeSet minusSet(RangeSet other) {
+        final long[] s = new long[starts.length + other.starts.length];
+        final long[] e = new long[s.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < starts.length; i++) {
+            long from = starts[i];
+            final long to = ends[i];
+            while (j < other.starts.length && other.ends[j] < from)
+                ++j;
+            boolean covered = false;
+            for (int k = j; k < other.starts.length && other.starts[k] <= to; k++) {
+                if (other.starts[k] > from) {
+                    s[n] = from;
+                    e[n++] = other.starts[k] - 1;
+                }
+                if (other.ends[k] >= to) {
+                    covered = true;
+                    break;
+                }
+                from = other.ends[k] + 1;
+            }
+            if (!covered) {
+                s[n] = from;
+                e[n++] = to;
+            }
+        }
+        return n == 0 ? EMPTY : new RangeSet(Arrays.copyOf(s, n), Arrays.copyOf(e, n));
+    }
+
+    @Override
+    public AbstractSSet<Long> suchThat(Collection<Predicate<Long>> t) {
+        final Conjunction<Long> conjunction = Conjunction.compile(t, this);
+        return conjunction.source().stream().filter(conjunction).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<Long>> powerSet() {
+        return AbstractSSet.powerSet(getData()).stream().map(SSet::new).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public Relation.Order<Long> getComparator() {
+        return (a, b) -> Relation.COMP.of(Long.compare(a, b));
+    }
+
+    @Override
+    public AbstractSSet<Long> min() {
+        return starts.length == 0 ? SSet.emptySet() : SSet.of(starts[0]);
+    }
+
+    @Override
+    public AbstractSSet<Long> max() {
+        return starts.length == 0 ? SSet.emptySet() : SSet.of(ends[ends.length - 1]);
+    }
+
+    @Override
+    public RangeSet moreThan(Long t) {
+        return t == Long.MAX_VALUE ? EMPTY : overlapping(t + 1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public RangeSet lessThan(Long t) {
+        return t == Long.MIN_VALUE ? EMPTY : overlapping(Long.MIN_VALUE, t - 1);
+    }
+
+    @Override
+    public Set<Long> getData() {
+        return data;
+    }
+
+    @Override
+    public int cardinality() {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    @Override
+    public Stream<Long> stream() {
+        return IntStream.range(0, starts.length).boxed()
+                .flatMap(i -> LongStream.rangeClosed(starts[i], ends[i]).boxed());
+    }
+
+    @Override
+    public Stream<Long> parallelStream() {
+        return stream().parallel();
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<>() {
+            private int range;
+            private long next = starts.length == 0 ? 0 : starts[0];
+
+            @Override
+            public boolean hasNext() {
+                return range < starts.length;
+            }
+
+            @Override
+            public Long next() {
+                if (range >= starts.length)
+                    throw new NoSuchElementException();
+                final long current = next;
+                if (current == ends[range]) {
+                    if (++range < starts.length)
+                        next = starts[range];
+                } else
+                    ++next;
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RangeSet)) return false;
+        final RangeSet that = (RangeSet) o;
+        return Arrays.equals(starts, that.starts) && Arrays.equals(ends, that.ends);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder("[");
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0)
+                b.append(", ");
+            b.append(starts[i]);
+            if (ends[i] != starts[i])
+                b.append("..").append(ends[i]);
+        }
+        return b.append(']').toString();
+    }
+
+    /**
+     * The raw form of the set, enumerating the intervals lazily
+     */
+    private final class DataView extends AbstractSet<Long> {
+
+        @Override
+        public Iterator<Long> iterator() {
+            return RangeSet.this.iterator();
+        }
+
+        @Override
+        public int size() {
+            return cardinality();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Long && indexOf((Long) o) >= 0;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package JavaSets.sets.concrete;
+
+import JavaSets.Preconditions;
+import JavaSets.sets.abstraction.AbstractPartitionSet;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.properties.Conjunction;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A partition of a fixed set of elements refined in place by splitters
+ * The elements are permuted in a single array where each class is a segment, refining by a splitter moves its
+ * elements to the front of their segments and cuts the segments it partially covers, relabeling only the smaller
+ * half, so that a refinement costs the size of the splitter whatever the number of elements and classes.
+ * Refinements must not run concurrently, use snapshot to freeze the classes into a PartitionSet.
+ *
+ * @param <T> the type of the elements
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class RefinablePartition<T> implements AbstractPartitionSet<T> {
+
+    private final Map<T, Integer> ids;
+    private final Object[] values;
+    private final int[] elements;
+    private final int[] location;
+    private final int[] classOf;
+    private final int[] first;
+    private final int[] end;
+    private final int[] marked;
+    private final int[] touched;
+    private int classes;
+    private final Set<T> data = new DataView();
+
+    /**
+     * @param t the elements, all in a single class
+     */
+    public RefinablePartition(AbstractSSet<T> t) {
+        this(Collections.singletonList(t));
+    }
+
+    /**
+     * @param partition the partition whose classes are the initial ones
+     */
+    public RefinablePartition(AbstractPartitionSet<T> partition) {
+        this(partition.components().getData());
+    }
+
+    /**
+     * @param classes the initial classes, pairwise disjoint
+     */
+    public RefinablePartition(Collection<? extends AbstractSSet<T>> classes) {
+        final int n = classes.stream().mapToInt(AbstractSSet::cardinality).sum();
+        ids = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+        values = new Object[n];
+        elements = new int[n];
+        location = new int[n];
+        classOf = new int[n];
+        first = new int[Math.max(1, n)];
+        end = new int[first.length];
+        marked = new int[first.length];
+        touched = new int[first.length];
+        int id = 0;
+        for (AbstractSSet<T> c : classes) {
+            if (c.isEmpty())
+                continue;
+            first[this.classes] = marked[this.classes] = id;
+            for (T t : c) {
+                Preconditions.checkArgument(ids.putIfAbsent(t, id) == null);
+                values[id] = t;
+                elements[id] = location[id] = id;
+                classOf[id++] = this.classes;
+            }
+            end[this.classes++] = id;
+        }
+    }
+
+    private RefinablePartition(RefinablePartition<T> other) {
+        ids = other.ids;
+        values = other.values;
+        elements = other.elements.clone();
+        location = other.location.clone();
+        classOf = other.classOf.clone();
+        first = other.first.clone();
+        end = other.end.clone();
+        marked = other.marked.clone();
+        touched = new int[other.touched.length];
+        classes = other.classes;
+    }
+
+    /**
+     * Splits every class into its elements lying in splitter and those lying outside
+     *
+     * @param splitter the elements to separate from the rest of their classes, those not in this set being ignored
+     * @return the number of classes split
+     */
+    public int refine(AbstractSSet<T> splitter) {
+        return refine((Iterable<T>) splitter);
+    }
+
+    private int refine(Iterable<T> splitter) {
+        int size = 0;
+        for (T t : splitter) {
+            final Integer id = ids.get(t);
+            if (id == null)
+                continue;
+            final int c = classOf[id];
+            if (location[id] < marked[c])
+                continue;
+            if (marked[c] == first[c])
+                touched[size++] = c;
+            swap(location[id], marked[c]++);
+        }
+        int split = 0;
+        for (int i = 0; i < size; i++) {
+            final int c = touched[i];
+            if (marked[c] == end[c]) {
+                marked[c] = first[c];
+                continue;
+            }
+            final int created = classes++;
+            if (marked[c] - first[c] <= end[c] - marked[c]) {
+                first[created] = first[c];
+                end[created] = marked[c];
+                first[c] = marked[c];
+            } else {
+                first[created] = marked[c];
+                end[created] = end[c];
+                end[c] = marked[c];
+            }
+            marked[c] = first[c];
+            marked[created] = first[created];
+            for (int p = first[created]; p < end[created]; p++)
+                classOf[elements[p]] = created;
+            ++split;
+        }
+        return split;
+    }
+
+    private void swap(int i, int j) {
+        final int a = elements[i];
+        final int b = elements[j];
+        elements[i] = b;
+        elements[j] = a;
+        location[a] = j;
+        location[b] = i;
+    }
+
+    /**
+     * The common refinement, refining a copy of this partition by all the classes of other except the largest one
+     *
+     * @param other a partition of the same elements
+     * @return the partition whose classes are the non empty intersections of the classes of both
+     * @throws IllegalArgumentException if other does not partition the same elements
+     */
+    public RefinablePartition<T> meet(AbstractPartitionSet<T> other) {
+        Preconditions.checkArgument(other.cardinality() == cardinality() && ids.keySet().containsAll(other.getData()));
+        final RefinablePartition<T> result = new RefinablePartition<>(this);
+        final List<Iterable<T>> splitters = new ArrayList<>();
+        if (other instanceof RefinablePartition) {
+            final RefinablePartition<T> o = (RefinablePartition<T>) other;
+            for (int c = 0; c < o.classes; c++)
+                splitters.add(o.members(c));
+        } else
+            splitters.addAll(other.components().getData());
+        int largest = 0;
+        for (int i = 1; i < splitters.size(); i++)
+            if (sizeOf(splitters.get(i)) > sizeOf(splitters.get(largest)))
+                largest = i;
+        for (int i = 0; i < splitters.size(); i++)
+            if (i != largest)
+                result.refine(splitters.get(i));
+        return result;
+    }
+
+    private int sizeOf(Iterable<T> splitter) {
+        return splitter instanceof RefinablePartition.Members
+                ? ((Members) splitter).size() : ((AbstractSSet<T>) splitter).cardinality();
+    }
+
+    /**
+     * @param t an element of this set
+     * @param u an element of this set
+     * @return whether t and u lie in the same class
+     */
+    public boolean areEquivalent(T t, T u) {
+        Preconditions.checkArgument(contains(t) && contains(u));
+        return classOf[ids.get(t)] == classOf[ids.get(u)];
+    }
+
+    /**
+     * Freezes the current classes
+     *
+     * @return an immutable partition with the classes present during the call
+     */
+    public PartitionSet<T> snapshot() {
+        final List<AbstractSSet<T>> components = new ArrayList<>(classes);
+        for (int c = 0; c < classes; c++)
+            components.add(toSet(c));
+        final int[] owner = classOf.clone();
+        return new PartitionSet<>(new IndexedSet<>(components, (T elem) -> components.get(owner[ids.get(elem)])));
+    }
+
+    private Members members(int c) {
+        return new Members(first[c], end[c]);
+    }
+
+    private AbstractSSet<T> toSet(int c) {
+        return SSet.<T>builder(end[c] - first[c]).addAll(members(c)).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T valueAt(int position) {
+        return (T) values[elements[position]];
+    }
+
+    @Override
+    public AbstractSSet<T> component(T t) {
+        Preconditions.checkArgument(contains(t));
+        return toSet(classOf[ids.get(t)]);
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> components() {
+        final SSet.Builder<AbstractSSet<T>> builder = SSet.builder(classes);
+        for (int c = 0; c < classes; c++)
+            builder.add(toSet(c));
+        return builder.build();
+    }
+
+    @Override
+    public T representing(AbstractSSet<T> component) {
+        final T t = component.getElementOrThrow();
+        Preconditions.checkArgument(contains(t) && component(t).equals(component));
+        return t;
+    }
+
+    @Override
+    public AbstractSSet<T> representants() {
+        final SSet.Builder<T> builder = SSet.builder(classes);
+        for (int c = 0; c < classes; c++)
+            builder.add(valueAt(first[c]));
+        return builder.build();
+    }
+
+    @Override
+    public int numberOfComponents() {
+        return classes;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return ids.containsKey(t);
+    }
+
+    @Override
+    public AbstractSSet<T> suchThat(Collection<Predicate<T>> t) {
+        final Conjunction<T> conjunction = Conjunction.compile(t, this);
+        return conjunction.source().stream().filter(conjunction).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<T> union(Collection<AbstractSSet<T>> others) {
+        return Stream.concat(stream(), others.stream().flatMap(AbstractSSet::stream)).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public AbstractSSet<AbstractSSet<T>> powerSet() {
+        return AbstractSSet.powerSet(getData()).stream().map(SSet::new).collect(SSet.toMathSet());
+    }
+
+    @Override
+    public Set<T> getData() {
+        return data;
+    }
+
+    @Override
+    public int cardinality() {
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder("{");
+        for (int c = 0; c < classes; c++) {
+            if (c > 0)
+                b.append(", ");
+            b.append(toSet(c));
+        }
+        return b.append('}').toString();
+    }
+
+    /**
+     * The elements of the segment of a class, read in place
+     */
+    private final class Members implements Iterable<T> {
+
+        private final int from;
+        private final int to;
+
+        private Members(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private int size() {
+            return to - from;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+                private int position = from;
+
+                @Override
+                public boolean hasNext() {
+                    return position < to;
+                }
+
+                @Override
+                public T next() {
+                    if (position >= to)
+                        throw new NoSuchElementException();
+                    return valueAt(position++);
+                }
+            };
+        }
+    }
+
+    /**
+     * The raw form of the set, its elements being fixed
+     */
+    private final class DataView extends AbstractSet<T> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<T> iterator() {
+            return Arrays.asList((T[]) values).iterator();
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return ids.containsKey(o);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package JavaSets.sets.concrete;
 
+import JavaSets.Interner;
+import JavaSets.Preconditions;
+import JavaSets.instrumentation.Instrumentation;
+import JavaSets.instrumentation.Operation;
 import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.properties.Conjunction;
 
 import java.util.*;
 import java.util.function.*;
@@ -13,30 +18,37 @@ import java.util.stream.Stream;
  */
 public class SSet<T> implements AbstractSSet<T> {
 
+    private static final Interner<SSet<?>> CANONICAL = new Interner<>();
+
     private final Set<T> data;
+    private final boolean immutable;
+    private int hash;
 
     /**
      * Constructor from collection
-     * @param t the data to copy
+     * @param t the data to copy, into a dense array whose streams split evenly
      */
     public SSet(Collection<T> t) {
-        data = Set.copyOf(t);
+        data = ArraySet.copyOf(t);
+        immutable = true;
     }
 
     /**
-     * Constructor from collection
-     * @param t the data to copy
+     * Constructor from set
+     * @param t the data to wrap, it is not copied and must not be modified afterwards
      */
     public SSet(Set<T> t) {
         data = t;
+        immutable = true;
     }
 
     /**
      * Copy constructor
-     * @param t the MathSet to copy
+     * @param t the MathSet to copy, its data is shared and only known to be immutable for the immutable implementations
      */
     public SSet(AbstractSSet<T> t) {
         data = t.getData();
+        immutable = t instanceof SSet ? ((SSet<T>) t).immutable : t instanceof PersistentSet || t instanceof RangeSet;
     }
 
     /**
@@ -50,6 +62,103 @@ public class SSet<T> implements AbstractSSet<T> {
         return new SSet<>(Set.of(t));
     }
 
+    /**
+     * @param <T> the type of the future MathSet
+     * @return a builder for a MathSet
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>(16);
+    }
+
+    /**
+     * @param expectedSize the number of elements the set is expected to hold, sizing the table once
+     * @param <T>          the type of the future MathSet
+     * @return a builder for a MathSet
+     */
+    public static <T> Builder<T> builder(int expectedSize) {
+        return new Builder<>(expectedSize);
+    }
+
+    /**
+     * A mutable, single owner builder loading elements directly into the table of the future MathSet
+     * The table is frozen without copy when the set is built, after which the builder can't be used anymore
+     *
+     * @param <T> the type of the future MathSet
+     */
+    public static final class Builder<T> {
+
+        private Set<T> data;
+
+        private Builder(int expectedSize) {
+            Preconditions.checkArgument(expectedSize >= 0);
+            data = new HashSet<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+        }
+
+        /**
+         * @param t the element to add
+         * @return this builder
+         */
+        public Builder<T> add(T t) {
+            data().add(t);
+            return this;
+        }
+
+        /**
+         * @param t the elements to add
+         * @return this builder
+         */
+        @SafeVarargs
+        public final Builder<T> addAll(T... t) {
+            final Set<T> d = data();
+            for (T e : t)
+                d.add(e);
+            return this;
+        }
+
+        /**
+         * @param t the elements to add
+         * @return this builder
+         */
+        public Builder<T> addAll(Iterator<? extends T> t) {
+            final Set<T> d = data();
+            while (t.hasNext())
+                d.add(t.next());
+            return this;
+        }
+
+        /**
+         * @param t the elements to add
+         * @return this builder
+         */
+        public Builder<T> addAll(Iterable<? extends T> t) {
+            return addAll(t.iterator());
+        }
+
+        /**
+         * @return the number of elements added so far
+         */
+        public int size() {
+            return data().size();
+        }
+
+        /**
+         * Freezes the elements added so far into a MathSet, in constant time
+         *
+         * @return the MathSet containing all the added elements
+         */
+        public SSet<T> build() {
+            final Set<T> d = data();
+            data = null;
+            return new SSet<>(Collections.unmodifiableSet(d));
+        }
+
+        private Set<T> data() {
+            if (data == null)
+                throw new IllegalStateException("The set has already been built.");
+            return data;
+        }
+    }
+
     /**
      * The powerSet is the set of all subsets of a set, it allows to navigate through subsets
      * @return The powerset of the current MathSet
@@ -67,7 +176,12 @@ public class SSet<T> implements AbstractSSet<T> {
      */
     @Override
     public final AbstractSSet<T> union(final Collection<AbstractSSet<T>> others) {
-        return Stream.concat(this.stream(), others.stream().flatMap(s -> s.getData().stream())).collect(toMathSet());
+        final long start = Instrumentation.start();
+        final AbstractSSet<T> result = Stream.concat(this.stream(), others.stream().flatMap(s -> s.getData().stream())).collect(toMathSet());
+        if (Instrumentation.ENABLED)
+            Instrumentation.record(Operation.UNION, start,
+                    cardinality() + others.stream().mapToLong(AbstractSSet::cardinality).sum(), result.cardinality());
+        return result;
     }
 
     /**
@@ -77,7 +191,26 @@ public class SSet<T> implements AbstractSSet<T> {
      */
     @Override
     public final AbstractSSet<T> suchThat(final Collection<Predicate<T>> t) {
-        return stream().filter(l -> t.stream().allMatch(r -> r.test(l))).collect(toMathSet());
+        return select(t, Operation.SUCH_THAT);
+    }
+
+    /**
+     * Set theoretical intersection, solved as the conjunction of the memberships to the others
+     * @param others the sets to intersect with
+     * @return A MathSet containing only those elements that lies in all sets
+     */
+    @Override
+    public final AbstractSSet<T> intersection(final Collection<AbstractSSet<T>> others) {
+        return select(others.stream().map(AbstractSSet::predicateContains).collect(Collectors.toList()), Operation.INTERSECTION);
+    }
+
+    private AbstractSSet<T> select(final Collection<? extends Predicate<T>> t, final Operation op) {
+        final long start = Instrumentation.start();
+        final Conjunction<T> conjunction = Conjunction.compile(t, this);
+        final AbstractSSet<T> result = conjunction.source().stream().filter(conjunction).collect(toMathSet());
+        if (Instrumentation.ENABLED)
+            Instrumentation.record(op, start, conjunction.source().cardinality(), result.cardinality());
+        return result;
     }
 
     /**
@@ -90,11 +223,29 @@ public class SSet<T> implements AbstractSSet<T> {
 
     /**
      * A collector allowing to collect elements into a set
+     * Duplicates are dropped as the elements are accumulated, the sets of the parallel parts being merged once
+     * into the largest of them, and the distinct elements are finally loaded in a dense array
      * @param <T> the type of the future MathSet
      * @return The collector allowing to gather values as a set
      */
     static public <T> Collector<T, ?, SSet<T>> toMathSet() {
-        return Collectors.collectingAndThen(Collectors.toSet(), SSet::new);
+        return Collector.<T, List<Set<T>>, SSet<T>>of(() -> {
+            final List<Set<T>> parts = new ArrayList<>(1);
+            parts.add(new HashSet<>());
+            return parts;
+        }, (parts, t) -> parts.get(0).add(t), (a, b) -> {
+            a.addAll(b);
+            return a;
+        }, parts -> {
+            Set<T> largest = parts.get(0);
+            for (Set<T> part : parts)
+                if (part.size() > largest.size())
+                    largest = part;
+            for (Set<T> part : parts)
+                if (part != largest)
+                    largest.addAll(part);
+            return new SSet<>(ArraySet.copyOf(largest));
+        }, Collector.Characteristics.UNORDERED);
     }
 
     /**
@@ -107,17 +258,42 @@ public class SSet<T> implements AbstractSSet<T> {
     }
 
 
+    /**
+     * Hash-consing of sets, meant for sets stored as elements of other sets
+     * Only plain sets are interned, subclasses carry an order, an indexer or components that equality ignores
+     *
+     * @return the canonical instance equal to this set, equal plain sets interned this way share one instance,
+     * this set itself if it is not a plain set
+     */
+    @SuppressWarnings("unchecked")
+    public final SSet<T> intern() {
+        return getClass() == SSet.class ? (SSet<T>) CANONICAL.intern(this) : this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof SSet)) return false;
         SSet<?> sSet = (SSet<?>) o;
+        if (data.size() != sSet.data.size()) return false;
+        if (immutable && sSet.immutable && hashCode() != sSet.hashCode()) return false;
         return Objects.equals(data, sSet.data);
     }
 
+    /**
+     * The hash is computed on first use and cached when the data is known never to change,
+     * a set sharing the live view of a mutable set computing it again each time
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(data);
+        if (!immutable)
+            return Objects.hash(data);
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(data);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
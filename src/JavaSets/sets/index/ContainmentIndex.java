@@ -0,0 +1,194 @@
+package JavaSets.sets.index;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.SSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A collection of sets indexed by their elements, each element listing the increasing ids of the sets holding it
+ * <p>
+ * The stored sets containing a query are the intersection of the lists of its elements, starting from the shortest,
+ * and the stored sets contained in a query are those whose elements are all counted while reading the lists of the
+ * elements of the query, so that neither reads the sets that share no element with the query.
+ * Sets must not be added while queries run, queries can run concurrently, notably through the batch methods.
+ *
+ * @param <K> the type of the keys identifying the stored sets
+ * @param <T> the type of the elements of the sets
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class ContainmentIndex<K, T> {
+
+    private final List<K> keys = new ArrayList<>();
+    private int[] sizes = new int[16];
+    private final Map<T, Postings> postings = new HashMap<>();
+    private final Postings empty = new Postings();
+    private final ThreadLocal<int[]> counters = new ThreadLocal<>();
+
+    /**
+     * @param key the key of the set, keys being reported once per set stored with them
+     * @param set the set to store
+     */
+    public void put(K key, AbstractSSet<T> set) {
+        final int id = keys.size();
+        keys.add(key);
+        if (id == sizes.length)
+            sizes = Arrays.copyOf(sizes, id + (id >> 1));
+        sizes[id] = set.cardinality();
+        if (set.isEmpty())
+            empty.add(id);
+        for (T t : set)
+            postings.computeIfAbsent(t, e -> new Postings()).add(id);
+    }
+
+    /**
+     * @return the number of stored sets
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * @param query the set to look for
+     * @return the keys of the stored sets containing all the elements of query
+     */
+    public AbstractSSet<K> supersetsOf(AbstractSSet<T> query) {
+        final SSet.Builder<K> result = SSet.builder();
+        forEachSuperset(query, id -> result.add(keys.get(id)));
+        return result.build();
+    }
+
+    /**
+     * @param query the set to look for
+     * @return the keys of the stored sets whose elements all lie in query
+     */
+    public AbstractSSet<K> subsetsOf(AbstractSSet<T> query) {
+        final SSet.Builder<K> result = SSet.builder();
+        for (int i = 0; i < empty.size; i++)
+            result.add(keys.get(empty.ids[i]));
+        int[] counts = counters.get();
+        if (counts == null || counts.length < keys.size()) {
+            counts = new int[Math.max(16, keys.size())];
+            counters.set(counts);
+        }
+        final Postings touched = new Postings();
+        for (T t : query) {
+            final Postings p = postings.get(t);
+            if (p == null)
+                continue;
+            for (int i = 0; i < p.size; i++) {
+                final int id = p.ids[i];
+                if (counts[id]++ == 0)
+                    touched.add(id);
+                if (counts[id] == sizes[id])
+                    result.add(keys.get(id));
+            }
+        }
+        for (int i = 0; i < touched.size; i++)
+            counts[touched.ids[i]] = 0;
+        return result.build();
+    }
+
+    /**
+     * @param query the set to look for
+     * @return the keys of the stored sets equal to query
+     */
+    public AbstractSSet<K> equalTo(AbstractSSet<T> query) {
+        final SSet.Builder<K> result = SSet.builder();
+        forEachSuperset(query, id -> {
+            if (sizes[id] == query.cardinality())
+                result.add(keys.get(id));
+        });
+        return result.build();
+    }
+
+    /**
+     * @param queries the sets to look for
+     * @return the keys of the stored sets containing each query, in the order of the queries, computed in parallel
+     */
+    public List<AbstractSSet<K>> supersetsOfAll(List<AbstractSSet<T>> queries) {
+        return queries.parallelStream().map(this::supersetsOf).collect(Collectors.toList());
+    }
+
+    /**
+     * @param queries the sets to look for
+     * @return the keys of the stored sets contained in each query, in the order of the queries, computed in parallel
+     */
+    public List<AbstractSSet<K>> subsetsOfAll(List<AbstractSSet<T>> queries) {
+        return queries.parallelStream().map(this::subsetsOf).collect(Collectors.toList());
+    }
+
+    private void forEachSuperset(AbstractSSet<T> query, IdConsumer action) {
+        if (query.isEmpty()) {
+            for (int id = 0; id < keys.size(); id++)
+                action.accept(id);
+            return;
+        }
+        final List<Postings> lists = new ArrayList<>(query.cardinality());
+        for (T t : query) {
+            final Postings p = postings.get(t);
+            if (p == null)
+                return;
+            lists.add(p);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        final Postings shortest = lists.get(0);
+        final int[] cursors = new int[lists.size()];
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            final int id = shortest.ids[i];
+            for (int l = 1; l < lists.size(); l++) {
+                final Postings p = lists.get(l);
+                cursors[l] = p.seek(cursors[l], id);
+                if (cursors[l] == p.size)
+                    return;
+                if (p.ids[cursors[l]] != id)
+                    continue candidates;
+            }
+            action.accept(id);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IdConsumer {
+        void accept(int id);
+    }
+
+    /**
+     * The increasing ids of the sets holding an element
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        /**
+         * Galloping search from a position
+         *
+         * @return the first position from 'from' holding an id greater or equal to id, size if there is none
+         */
+        private int seek(int from, int id) {
+            int step = 1;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            final int found = Arrays.binarySearch(ids, from, Math.min(high + 1, size), id);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
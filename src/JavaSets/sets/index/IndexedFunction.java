@@ -0,0 +1,150 @@
+package JavaSets.sets.index;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.abstraction.SetFunction;
+import JavaSets.sets.concrete.SSet;
+import JavaSets.sets.properties.Equation;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A function over a given domain along with the inverted index of its values, each value mapping to its pre-image
+ * The index is built once, in parallel for large domains, after which the pre-image of a value is a lookup and the
+ * pre-image of a set of values costs the size of the answer, instead of applying the function to the whole domain.
+ * The pre-image equations read the index for the elements of the domain and apply the function to the others, so that
+ * solving them in the domain itself returns the indexed answer and solving them in any other set stays exact.
+ *
+ * @param <T> the type of the elements of the domain
+ * @param <U> the type of the values, the function never mapping to null
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class IndexedFunction<T, U> implements SetFunction<T, U> {
+
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private final SetFunction<T, U> f;
+    private final AbstractSSet<T> domain;
+    private final Map<U, AbstractSSet<T>> preImages;
+
+    private IndexedFunction(SetFunction<T, U> f, AbstractSSet<T> domain, Map<U, AbstractSSet<T>> preImages) {
+        this.f = f;
+        this.domain = domain;
+        this.preImages = preImages;
+    }
+
+    /**
+     * @param f      the function to index
+     * @param domain the elements whose values are indexed
+     * @param <T>    the type of the elements of the domain
+     * @param <U>    the type of the values
+     * @return f along with the pre-images of its values over domain
+     */
+    public static <T, U> IndexedFunction<T, U> of(SetFunction<T, U> f, AbstractSSet<T> domain) {
+        final Map<U, SSet<T>> preImages = domain.cardinality() < PARALLEL_THRESHOLD
+                ? domain.stream().collect(Collectors.groupingBy(f, HashMap::new, SSet.toMathSet()))
+                : domain.parallelStream().collect(Collectors.groupingByConcurrent(f, SSet.toMathSet()));
+        return new IndexedFunction<>(f, domain, Collections.<U, AbstractSSet<T>>unmodifiableMap(preImages));
+    }
+
+    @Override
+    public U apply(T t) {
+        return f.apply(t);
+    }
+
+    /**
+     * @return the indexed domain
+     */
+    public AbstractSSet<T> getDomain() {
+        return domain;
+    }
+
+    /**
+     * @return the values taken over the domain
+     */
+    public AbstractSSet<U> image() {
+        return new SSet<>(preImages.keySet());
+    }
+
+    /**
+     * @return the pre-image of each value taken over the domain
+     */
+    public Map<U, AbstractSSet<T>> preImages() {
+        return preImages;
+    }
+
+    /**
+     * @param u the codomain element
+     * @return the elements of the domain mapped at u
+     */
+    public AbstractSSet<T> preImage(U u) {
+        return preImages.getOrDefault(u, SSet.emptySet());
+    }
+
+    /**
+     * @param u the codomain set
+     * @return the elements of the domain mapped in u, reading the smallest of u and the index
+     */
+    public AbstractSSet<T> preImage(AbstractSSet<U> u) {
+        final SSet.Builder<T> builder = SSet.builder();
+        if (u.cardinality() <= preImages.size()) {
+            for (U value : u) {
+                final AbstractSSet<T> p = preImages.get(value);
+                if (p != null)
+                    builder.addAll(p);
+            }
+        } else
+            preImages.forEach((value, p) -> {
+                if (u.contains(value))
+                    builder.addAll(p);
+            });
+        return builder.build();
+    }
+
+    /**
+     * @param u the codomain element
+     * @return An equation locating all elements that will be mapped at u by this function
+     */
+    @Override
+    public Equation<T> preImageOf(U u) {
+        return new PreImage(preImage(u), t -> Objects.equals(f.apply(t), u));
+    }
+
+    /**
+     * @param u the codomain set
+     * @return An equation locating all elements that will be mapped in u by this function
+     */
+    @Override
+    public Equation<T> preImageOf(AbstractSSet<U> u) {
+        return new PreImage(preImage(u), t -> u.contains(f.apply(t)));
+    }
+
+    /**
+     * A pre-image equation, answered by the index over the domain and by the function outside of it
+     */
+    private final class PreImage implements Equation<T> {
+
+        private final AbstractSSet<T> indexed;
+        private final Predicate<T> outside;
+
+        private PreImage(AbstractSSet<T> indexed, Predicate<T> outside) {
+            this.indexed = indexed;
+            this.outside = outside;
+        }
+
+        @Override
+        public AbstractSSet<T> solveIn(AbstractSSet<T> m) {
+            return m == domain ? indexed : m.suchThat(this);
+        }
+
+        @Override
+        public boolean test(T t) {
+            return domain.contains(t) ? indexed.contains(t) : outside.test(t);
+        }
+    }
+}
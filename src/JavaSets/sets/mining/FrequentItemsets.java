@@ -0,0 +1,255 @@
+package JavaSets.sets.mining;
+
+import JavaSets.Preconditions;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.SSet;
+import javafx.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Frequent itemset mining of a collection of transactions by FP-growth
+ * <p>
+ * The transactions are read twice: once to count the items, then to insert their frequent items, by decreasing
+ * frequency, in a prefix tree. Itemsets are then grown from the least frequent items, each item being mined in the
+ * tree of the prefixes leading to it, so that no itemset below the minimum support is ever built.
+ * The itemsets are streamed as they are found, and the projected trees of the items can be mined in parallel.
+ *
+ * @param <T> the type of the items
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class FrequentItemsets<T> {
+
+    private final Collection<? extends AbstractSSet<T>> transactions;
+
+    private FrequentItemsets(Collection<? extends AbstractSSet<T>> transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * @param transactions the transactions to mine, read again by each mining
+     * @param <T>          the type of the items
+     * @return the miner of the transactions
+     */
+    public static <T> FrequentItemsets<T> of(Collection<? extends AbstractSSet<T>> transactions) {
+        return new FrequentItemsets<>(transactions);
+    }
+
+    /**
+     * @param minSupport the minimal number of transactions an itemset must lie in, at least 1
+     * @return the frequent itemsets with their support, streamed as they are found
+     */
+    public Stream<Pair<AbstractSSet<T>, Long>> mine(long minSupport) {
+        return mine(minSupport, false);
+    }
+
+    /**
+     * @param minSupport the minimal number of transactions an itemset must lie in, at least 1
+     * @return the frequent itemsets with their support, the tree projected on each item being mined in parallel
+     */
+    public Stream<Pair<AbstractSSet<T>, Long>> parallelMine(long minSupport) {
+        return mine(minSupport, true);
+    }
+
+    private Stream<Pair<AbstractSSet<T>, Long>> mine(long minSupport, boolean parallel) {
+        Preconditions.checkArgument(minSupport >= 1);
+        final Map<T, Long> counts = new HashMap<>();
+        for (AbstractSSet<T> transaction : transactions)
+            for (T t : transaction)
+                counts.merge(t, 1L, Long::sum);
+
+        final List<T> items = new ArrayList<>();
+        counts.forEach((t, c) -> {
+            if (c >= minSupport)
+                items.add(t);
+        });
+        items.sort((a, b) -> Long.compare(counts.get(b), counts.get(a)));
+        final Map<T, Integer> ranks = new HashMap<>(Math.max(16, (int) (items.size() / 0.75f) + 1));
+        for (int i = 0; i < items.size(); i++)
+            ranks.put(items.get(i), i);
+
+        final FpTree tree = new FpTree(IntStream.range(0, items.size()).toArray());
+        final int[] path = new int[items.size()];
+        for (AbstractSSet<T> transaction : transactions) {
+            int length = 0;
+            for (T t : transaction) {
+                final Integer rank = ranks.get(t);
+                if (rank != null)
+                    path[length++] = rank;
+            }
+            Arrays.sort(path, 0, length);
+            tree.insert(path, length, 1);
+        }
+
+        final IntStream roots = IntStream.range(0, items.size()).map(i -> items.size() - 1 - i);
+        return (parallel ? roots.parallel() : roots).boxed()
+                .flatMap(item -> grow(tree, item, new int[0], minSupport, items));
+    }
+
+    /**
+     * Streams the itemset made of the suffix and the item, then all the frequent itemsets ending with it
+     * The item is a rank local to the tree, the itemsets holding global ranks
+     */
+    private Stream<Pair<AbstractSSet<T>, Long>> grow(FpTree tree, int item, int[] suffix, long minSupport, List<T> items) {
+        final long support = tree.support[item];
+        if (support < minSupport)
+            return Stream.empty();
+        final int[] itemset = Arrays.copyOf(suffix, suffix.length + 1);
+        itemset[suffix.length] = tree.ranks[item];
+        final Pair<AbstractSSet<T>, Long> found = new Pair<>(decode(itemset, items), support);
+        return Stream.concat(Stream.of(found), Stream.of(item).flatMap(i -> {
+            final FpTree conditional = tree.project(i, minSupport);
+            final int n = conditional.ranks.length;
+            return IntStream.range(0, n).map(j -> n - 1 - j).boxed()
+                    .flatMap(j -> grow(conditional, j, itemset, minSupport, items));
+        }));
+    }
+
+    private AbstractSSet<T> decode(int[] itemset, List<T> items) {
+        final SSet.Builder<T> builder = SSet.builder(itemset.length);
+        for (int i : itemset)
+            builder.add(items.get(i));
+        return builder.build();
+    }
+
+    /**
+     * A prefix tree of the transactions, items being ranked by decreasing frequency
+     * Node 0 is the root, the nodes of each item are chained from its header
+     * Items are numbered locally, in the order of their global ranks, so that a projected tree is sized by the
+     * items of its pattern base only
+     */
+    private static final class FpTree {
+
+        private int[] item = new int[16];
+        private int[] parent = new int[16];
+        private int[] firstChild = new int[16];
+        private int[] sibling = new int[16];
+        private int[] next = new int[16];
+        private long[] count = new long[16];
+        private int size = 1;
+
+        private final int[] ranks;
+        private final int[] rootChild;
+        private final int[] head;
+        private final long[] support;
+
+        /**
+         * @param ranks the global rank of each local item, increasing
+         */
+        private FpTree(int[] ranks) {
+            this.ranks = ranks;
+            rootChild = new int[ranks.length];
+            head = new int[ranks.length];
+            support = new long[ranks.length];
+            item[0] = -1;
+        }
+
+        /**
+         * @param path   increasing ranks of the items
+         * @param length the number of items of the path
+         * @param c      the number of transactions following the path
+         */
+        private void insert(int[] path, int length, long c) {
+            int node = 0;
+            for (int k = 0; k < length; k++) {
+                final int i = path[k];
+                int child = node == 0 ? rootChild[i] : firstChild[node];
+                if (node != 0)
+                    while (child != 0 && item[child] != i)
+                        child = sibling[child];
+                if (child == 0) {
+                    child = newNode(i, node);
+                    if (node == 0)
+                        rootChild[i] = child;
+                    else {
+                        sibling[child] = firstChild[node];
+                        firstChild[node] = child;
+                    }
+                }
+                count[child] += c;
+                support[i] += c;
+                node = child;
+            }
+        }
+
+        private int newNode(int i, int p) {
+            if (size == item.length) {
+                final int capacity = size * 2;
+                item = Arrays.copyOf(item, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                sibling = Arrays.copyOf(sibling, capacity);
+                next = Arrays.copyOf(next, capacity);
+                count = Arrays.copyOf(count, capacity);
+            }
+            final int node = size++;
+            item[node] = i;
+            parent[node] = p;
+            next[node] = head[i];
+            head[i] = node;
+            return node;
+        }
+
+        /**
+         * The items of the prefixes are collected and sorted, so that the projection costs the size of the prefixes
+         * and not the rank of the item
+         *
+         * @return the tree of the prefixes of the item, keeping only their frequent items
+         */
+        private FpTree project(int i, long minSupport) {
+            int visited = 0;
+            for (int node = head[i]; node != 0; node = next[node])
+                for (int p = parent[node]; p != 0; p = parent[p])
+                    ++visited;
+            final int[] distinct = new int[visited];
+            int n = 0;
+            for (int node = head[i]; node != 0; node = next[node])
+                for (int p = parent[node]; p != 0; p = parent[p])
+                    distinct[n++] = item[p];
+            Arrays.sort(distinct);
+            int d = 0;
+            for (int k = 0; k < n; k++)
+                if (d == 0 || distinct[d - 1] != distinct[k])
+                    distinct[d++] = distinct[k];
+
+            final long[] base = new long[d];
+            for (int node = head[i]; node != 0; node = next[node])
+                for (int p = parent[node]; p != 0; p = parent[p])
+                    base[Arrays.binarySearch(distinct, 0, d, item[p])] += count[node];
+            int m = 0;
+            for (int k = 0; k < d; k++)
+                if (base[k] >= minSupport)
+                    distinct[m++] = distinct[k];
+            final int[] kept = Arrays.copyOf(distinct, m);
+            final int[] globalRanks = new int[m];
+            for (int k = 0; k < m; k++)
+                globalRanks[k] = ranks[kept[k]];
+
+            final FpTree projected = new FpTree(globalRanks);
+            final int[] path = new int[m];
+            for (int node = head[i]; node != 0; node = next[node]) {
+                int length = 0;
+                for (int p = parent[node]; p != 0; p = parent[p]) {
+                    final int local = Arrays.binarySearch(kept, item[p]);
+                    if (local >= 0)
+                        path[length++] = local;
+                }
+                for (int l = 0, r = length - 1; l < r; l++, r--) {
+                    final int swap = path[l];
+                    path[l] = path[r];
+                    path[r] = swap;
+                }
+                projected.insert(path, length, count[node]);
+            }
+            return projected;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package JavaSets.sets.properties;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A collection of predicates compiled into a single equation
+ * The predicates are evaluated in a plain loop, those rejecting the most elements for their cost on a sample of the
+ * domain first, and a membership predicate against a smaller set turns the solving into a probe of that set
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class Conjunction<T> implements Equation<T> {
+
+    /**
+     * Number of elements of the domain on which the predicates are sampled
+     */
+    private static final int SAMPLE_SIZE = 64;
+
+    /**
+     * Under this cardinality the sampling costs more than it could ever save
+     */
+    private static final int SAMPLING_THRESHOLD = 1024;
+
+    private final AbstractSSet<T> source;
+    private final Predicate<T>[] predicates;
+
+    private Conjunction(AbstractSSet<T> source, Predicate<T>[] predicates) {
+        this.source = source;
+        this.predicates = predicates;
+    }
+
+    /**
+     * Compiles predicates meant to be solved in a given domain
+     *
+     * @param predicates the predicates that each element will have to respect
+     * @param domain     the set in which the conjunction will be solved
+     * @param <T>        the type of the elements
+     * @return the compiled conjunction
+     */
+    public static <T> Conjunction<T> compile(Collection<? extends Predicate<T>> predicates, AbstractSSet<T> domain) {
+        final List<Predicate<T>> remaining = new ArrayList<>(predicates);
+
+        AbstractSSet<T> source = domain;
+        Predicate<T> probe = null;
+        for (Predicate<T> p : remaining) {
+            if (p instanceof Equation.Membership) {
+                final AbstractSSet<T> candidate = ((Equation.Membership<T>) p).getSet();
+                if (candidate.cardinality() < source.cardinality()) {
+                    source = candidate;
+                    probe = p;
+                }
+            }
+        }
+        if (probe != null) {
+            remaining.remove(probe);
+            remaining.add(domain.predicateContains());
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Predicate<T>[] compiled = remaining.toArray(new Predicate[0]);
+        if (compiled.length > 1 && source.cardinality() >= SAMPLING_THRESHOLD)
+            reorder(compiled, source);
+
+        return new Conjunction<>(source, compiled);
+    }
+
+    /**
+     * Sorts the predicates by decreasing number of elements rejected per unit of cost on a sample of the domain
+     * The sample is strided across the whole domain, so that sorted domains are not judged on their smallest elements.
+     * The cost of a predicate is its evaluation time on the sample, measured once and rounded to a power of two, so
+     * that only costs differing by more than twice reorder the predicates, ties keeping their given order
+     */
+    private static <T> void reorder(Predicate<T>[] predicates, AbstractSSet<T> domain) {
+        final List<T> sample = new ArrayList<>(SAMPLE_SIZE);
+        final int stride = Math.max(1, domain.cardinality() / SAMPLE_SIZE);
+        final Iterator<T> it = domain.iterator();
+        for (int position = 0; it.hasNext() && sample.size() < SAMPLE_SIZE; position++) {
+            final T t = it.next();
+            if (position % stride == 0)
+                sample.add(t);
+        }
+
+        final double[] score = new double[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            int rejected = 0;
+            final long start = System.nanoTime();
+            for (T t : sample) {
+                if (!predicates[i].test(t))
+                    ++rejected;
+            }
+            final int cost = Long.SIZE - Long.numberOfLeadingZeros(Math.max(1, System.nanoTime() - start));
+            score[i] = Math.scalb((double) rejected, -cost);
+        }
+
+        final Integer[] order = new Integer[predicates.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -score[i]).thenComparingInt(i -> i));
+
+        final Predicate<T>[] copy = predicates.clone();
+        for (int i = 0; i < order.length; i++)
+            predicates[i] = copy[order[i]];
+    }
+
+    /**
+     * @return the set whose elements are the only candidates of this conjunction
+     */
+    public AbstractSSet<T> source() {
+        return source;
+    }
+
+    /**
+     * @return the predicates in their evaluation order
+     */
+    public List<Predicate<T>> predicates() {
+        return List.of(predicates);
+    }
+
+    @Override
+    public boolean test(T t) {
+        for (Predicate<T> p : predicates) {
+            if (!p.test(t))
+                return false;
+        }
+        return true;
+    }
+}
@@ -26,4 +26,34 @@ public interface Equation<T> extends Predicate<T> {
     default Equation<T> or(Predicate<? super T> other) {
         return t -> test(t) || other.test(t);
     }
+
+    /**
+     * The equation satisfied exactly by the elements of a given set,
+     * solvers recognize it and iterate the set itself instead of testing every candidate
+     *
+     * @param <T> the type of the elements
+     */
+    final class Membership<T> implements Equation<T> {
+
+        private final AbstractSSet<T> set;
+
+        /**
+         * @param set the set whose elements satisfy the equation
+         */
+        public Membership(AbstractSSet<T> set) {
+            this.set = set;
+        }
+
+        /**
+         * @return the set whose elements satisfy the equation
+         */
+        public AbstractSSet<T> getSet() {
+            return set;
+        }
+
+        @Override
+        public boolean test(T t) {
+            return set.contains(t);
+        }
+    }
 }
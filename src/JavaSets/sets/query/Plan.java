@@ -0,0 +1,136 @@
+package JavaSets.sets.query;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The explained form of a query: its operation tree with the estimated and actual cardinality of each step,
+ * the order in which the predicates ran and where sets were materialized
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class Plan {
+
+    /**
+     * The operations a query is made of
+     */
+    public enum Kind {SOURCE, FILTER, UNION, DIFFERENCE, IMAGE, PRODUCT}
+
+    private final Kind kind;
+    private final String description;
+    private final long estimated;
+    private final long actual;
+    private final long scanned;
+    private final boolean fullScan;
+    private final List<String> predicates;
+    private final List<Plan> children;
+
+    Plan(Kind kind, String description, long estimated, long actual, long scanned, boolean fullScan,
+         List<String> predicates, List<Plan> children) {
+        this.kind = kind;
+        this.description = description;
+        this.estimated = estimated;
+        this.actual = actual;
+        this.scanned = scanned;
+        this.fullScan = fullScan;
+        this.predicates = List.copyOf(predicates);
+        this.children = List.copyOf(children);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the cardinality expected before evaluation
+     */
+    public long getEstimatedCardinality() {
+        return estimated;
+    }
+
+    /**
+     * @return the cardinality of the evaluated step
+     */
+    public long getActualCardinality() {
+        return actual;
+    }
+
+    /**
+     * @return the number of elements the step read
+     */
+    public long getScanned() {
+        return scanned;
+    }
+
+    /**
+     * @return whether the step tested every element of its input rather than probing a smaller set
+     */
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    /**
+     * @return whether the step stored its result in a new set
+     */
+    public boolean isMaterialized() {
+        return kind != Kind.SOURCE;
+    }
+
+    /**
+     * @return the predicates of a filter, in the order they were evaluated
+     */
+    public List<String> getPredicates() {
+        return predicates;
+    }
+
+    public List<Plan> getChildren() {
+        return children;
+    }
+
+    /**
+     * @param condition the condition to look for
+     * @return whether this step or one of the steps it depends on satisfies the condition
+     */
+    public boolean anyMatch(Predicate<Plan> condition) {
+        return condition.test(this) || children.stream().anyMatch(c -> c.anyMatch(condition));
+    }
+
+    /**
+     * @param kind the kind of operation to look for
+     * @return whether the plan contains an operation of this kind
+     */
+    public boolean contains(Kind kind) {
+        return anyMatch(p -> p.kind == kind);
+    }
+
+    /**
+     * @return whether the plan contains a full scan
+     */
+    public boolean containsFullScan() {
+        return anyMatch(Plan::isFullScan);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        render(sb, 0);
+        return sb.toString();
+    }
+
+    private void render(StringBuilder sb, int depth) {
+        sb.append("  ".repeat(depth)).append(kind);
+        if (!description.isEmpty())
+            sb.append(' ').append(description);
+        sb.append(" (estimated=").append(estimated).append(", actual=").append(actual);
+        if (kind != Kind.SOURCE)
+            sb.append(", scanned=").append(scanned).append(", materialized");
+        if (fullScan)
+            sb.append(", full scan");
+        sb.append(')');
+        if (!predicates.isEmpty())
+            sb.append(" predicates=").append(predicates);
+        sb.append('\n');
+        children.forEach(c -> c.render(sb, depth + 1));
+    }
+}
@@ -0,0 +1,396 @@
+package JavaSets.sets.query;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.abstraction.SetFunction;
+import JavaSets.sets.concrete.SSet;
+import JavaSets.sets.properties.Conjunction;
+import JavaSets.sets.properties.Equation;
+import JavaSets.sets.sketches.CardinalitySketch;
+import javafx.util.Pair;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * A lazily evaluated composition of set operations
+ * The operations are only recorded until the query is evaluated, after which explain gives the operation tree
+ * with the estimated and actual cardinality of each step and the order in which the predicates ran
+ * Unions, intersections and differences of sets with attached cardinality sketches are estimated from the sketches
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public abstract class Query<T> {
+
+    /**
+     * Fraction of its input a predicate is assumed to keep when nothing else is known
+     */
+    private static final double DEFAULT_SELECTIVITY = 1d / 3;
+
+    private AbstractSSet<T> result;
+    long scanned;
+
+    private Query() {
+    }
+
+    /**
+     * @param set the set to query
+     * @param <T> the type of the elements
+     * @return the query returning the set itself
+     */
+    public static <T> Query<T> of(AbstractSSet<T> set) {
+        return new Source<>(set);
+    }
+
+    /**
+     * @param label     the name of the predicate in the plan
+     * @param predicate the predicate that each element will have to respect
+     * @return the query selecting the elements respecting the predicate
+     */
+    public Query<T> suchThat(String label, Predicate<T> predicate) {
+        return Filter.extend(this, Map.of(predicate, label), List.of());
+    }
+
+    /**
+     * @param predicate the predicate that each element will have to respect
+     * @return the query selecting the elements respecting the predicate
+     */
+    public Query<T> suchThat(Predicate<T> predicate) {
+        return suchThat("predicate", predicate);
+    }
+
+    /**
+     * @param other the query to intersect with
+     * @return the query of the elements lying in both
+     */
+    public Query<T> intersection(Query<T> other) {
+        return Filter.extend(this, Map.of(), List.of(other));
+    }
+
+    /**
+     * @param other the set to intersect with
+     * @return the query of the elements lying in both
+     */
+    public Query<T> intersection(AbstractSSet<T> other) {
+        return intersection(of(other));
+    }
+
+    /**
+     * @param other the query to union with
+     * @return the query of the elements lying in one of both
+     */
+    public Query<T> union(Query<T> other) {
+        return new Union<>(this, other);
+    }
+
+    /**
+     * @param other the set to union with
+     * @return the query of the elements lying in one of both
+     */
+    public Query<T> union(AbstractSSet<T> other) {
+        return union(of(other));
+    }
+
+    /**
+     * @param other the query to substract
+     * @return the query of the elements of this query not lying in other
+     */
+    public Query<T> minusSet(Query<T> other) {
+        return new Difference<>(this, other);
+    }
+
+    /**
+     * @param other the set to substract
+     * @return the query of the elements of this query not lying in other
+     */
+    public Query<T> minusSet(AbstractSSet<T> other) {
+        return minusSet(of(other));
+    }
+
+    /**
+     * @param f   the function to apply
+     * @param <U> the codomain type
+     * @return the query of the image of this query by f
+     */
+    public <U> Query<U> image(SetFunction<T, U> f) {
+        return new Image<>(this, f);
+    }
+
+    /**
+     * @param other the query to multiply with
+     * @param <U>   the type of the other query
+     * @return the query of all the pairs of elements of both
+     */
+    public <U> Query<Pair<T, U>> product(Query<U> other) {
+        return new Product<>(this, other);
+    }
+
+    /**
+     * Evaluates the query, each step being evaluated once
+     *
+     * @return the resulting set
+     */
+    public final AbstractSSet<T> evaluate() {
+        if (result == null)
+            result = compute();
+        return result;
+    }
+
+    /**
+     * Evaluates the query if needed and explains it
+     *
+     * @return the plan of the query, with the actual cardinalities
+     */
+    public final Plan explain() {
+        evaluate();
+        return plan();
+    }
+
+    /**
+     * @return the cardinality expected before evaluation
+     */
+    abstract long estimate();
+
+    /**
+     * @return the sketch of the result known before evaluation, null if there is none
+     */
+    CardinalitySketch sketch() {
+        return null;
+    }
+
+    abstract AbstractSSet<T> compute();
+
+    abstract Plan plan();
+
+    private static final class Source<T> extends Query<T> {
+
+        private final AbstractSSet<T> set;
+
+        Source(AbstractSSet<T> set) {
+            this.set = set;
+        }
+
+        @Override
+        long estimate() {
+            return set.cardinality();
+        }
+
+        @Override
+        CardinalitySketch sketch() {
+            return CardinalitySketch.attached(set).orElse(null);
+        }
+
+        @Override
+        AbstractSSet<T> compute() {
+            return set;
+        }
+
+        @Override
+        Plan plan() {
+            return new Plan(Plan.Kind.SOURCE, set.getClass().getSimpleName(), estimate(), set.cardinality(), 0,
+                    false, List.of(), List.of());
+        }
+    }
+
+    /**
+     * Selection by predicates and intersections, compiled into a single conjunction
+     * Consecutive selections and intersections extend the same filter, so that a chain is materialized once
+     */
+    private static final class Filter<T> extends Query<T> {
+
+        private final Query<T> input;
+        private final Map<Predicate<T>, String> labels;
+        private final List<Query<T>> intersected;
+        private List<String> order = List.of();
+        private boolean fullScan;
+
+        Filter(Query<T> input, Map<Predicate<T>, String> labels, List<Query<T>> intersected) {
+            this.input = input;
+            this.labels = labels;
+            this.intersected = intersected;
+        }
+
+        /**
+         * @return the filter of query extended by the given predicates and intersections
+         */
+        static <T> Filter<T> extend(Query<T> query, Map<Predicate<T>, String> labels, List<Query<T>> intersected) {
+            if (!(query instanceof Filter))
+                return new Filter<>(query, labels, intersected);
+            final Filter<T> filter = (Filter<T>) query;
+            final Map<Predicate<T>, String> mergedLabels = new LinkedHashMap<>(filter.labels);
+            labels.forEach(mergedLabels::putIfAbsent);
+            final List<Query<T>> mergedIntersected = new ArrayList<>(filter.intersected);
+            mergedIntersected.addAll(intersected);
+            return new Filter<>(filter.input, mergedLabels, mergedIntersected);
+        }
+
+        @Override
+        long estimate() {
+            final CardinalitySketch in = input.sketch();
+            long estimate = (long) (input.estimate() * Math.pow(DEFAULT_SELECTIVITY, labels.size()));
+            for (Query<T> q : intersected) {
+                final CardinalitySketch other = q.sketch();
+                estimate = Math.min(estimate, in != null && other != null
+                        ? CardinalitySketch.estimateIntersection(in, other) : q.estimate());
+            }
+            return estimate;
+        }
+
+        @Override
+        AbstractSSet<T> compute() {
+            final AbstractSSet<T> in = input.evaluate();
+            final Map<Predicate<T>, String> names = new LinkedHashMap<>(labels);
+            for (Query<T> q : intersected) {
+                final AbstractSSet<T> set = q.evaluate();
+                names.put(new Equation.Membership<>(set), "contains in " + set.cardinality() + " elements");
+            }
+            final Conjunction<T> conjunction = Conjunction.compile(names.keySet(), in);
+            order = conjunction.predicates().stream()
+                    .map(p -> names.getOrDefault(p, "contains in input")).collect(Collectors.toList());
+            fullScan = conjunction.source() == in;
+            scanned = conjunction.source().cardinality();
+            return conjunction.source().stream().filter(conjunction).collect(SSet.toMathSet());
+        }
+
+        @Override
+        Plan plan() {
+            final List<Plan> children = new ArrayList<>();
+            children.add(input.plan());
+            intersected.forEach(q -> children.add(q.plan()));
+            return new Plan(Plan.Kind.FILTER, fullScan ? "" : "probe", estimate(), evaluate().cardinality(),
+                    scanned, fullScan, order, children);
+        }
+    }
+
+    private static final class Union<T> extends Query<T> {
+
+        private final Query<T> left;
+        private final Query<T> right;
+
+        Union(Query<T> left, Query<T> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long estimate() {
+            final CardinalitySketch sketch = sketch();
+            return sketch != null ? sketch.estimate() : left.estimate() + right.estimate();
+        }
+
+        @Override
+        CardinalitySketch sketch() {
+            final CardinalitySketch l = left.sketch();
+            final CardinalitySketch r = right.sketch();
+            return l != null && r != null && l.getPrecision() == r.getPrecision() ? l.union(r) : null;
+        }
+
+        @Override
+        AbstractSSet<T> compute() {
+            final AbstractSSet<T> l = left.evaluate();
+            final AbstractSSet<T> r = right.evaluate();
+            scanned = l.cardinality() + r.cardinality();
+            return l.union(r);
+        }
+
+        @Override
+        Plan plan() {
+            return new Plan(Plan.Kind.UNION, "", estimate(), evaluate().cardinality(), scanned, false,
+                    List.of(), List.of(left.plan(), right.plan()));
+        }
+    }
+
+    private static final class Difference<T> extends Query<T> {
+
+        private final Query<T> left;
+        private final Query<T> right;
+
+        Difference(Query<T> left, Query<T> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long estimate() {
+            final CardinalitySketch l = left.sketch();
+            final CardinalitySketch r = right.sketch();
+            return l != null && r != null ? Math.max(0, left.estimate() - CardinalitySketch.estimateIntersection(l, r)) : left.estimate();
+        }
+
+        @Override
+        AbstractSSet<T> compute() {
+            final AbstractSSet<T> l = left.evaluate();
+            scanned = l.cardinality();
+            return l.minusSet(right.evaluate());
+        }
+
+        @Override
+        Plan plan() {
+            return new Plan(Plan.Kind.DIFFERENCE, "", estimate(), evaluate().cardinality(), scanned, true,
+                    List.of(), List.of(left.plan(), right.plan()));
+        }
+    }
+
+    private static final class Image<T, U> extends Query<U> {
+
+        private final Query<T> input;
+        private final SetFunction<T, U> f;
+
+        Image(Query<T> input, SetFunction<T, U> f) {
+            this.input = input;
+            this.f = f;
+        }
+
+        @Override
+        long estimate() {
+            return input.estimate();
+        }
+
+        @Override
+        AbstractSSet<U> compute() {
+            final AbstractSSet<T> in = input.evaluate();
+            scanned = in.cardinality();
+            return in.image(f);
+        }
+
+        @Override
+        Plan plan() {
+            return new Plan(Plan.Kind.IMAGE, "", estimate(), evaluate().cardinality(), scanned, false,
+                    List.of(), List.of(input.plan()));
+        }
+    }
+
+    private static final class Product<T, U> extends Query<Pair<T, U>> {
+
+        private final Query<T> left;
+        private final Query<U> right;
+
+        Product(Query<T> left, Query<U> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        long estimate() {
+            return left.estimate() * right.estimate();
+        }
+
+        @Override
+        AbstractSSet<Pair<T, U>> compute() {
+            final AbstractSSet<T> l = left.evaluate();
+            final AbstractSSet<U> r = right.evaluate();
+            scanned = (long) l.cardinality() * r.cardinality();
+            return l.product(r);
+        }
+
+        @Override
+        Plan plan() {
+            return new Plan(Plan.Kind.PRODUCT, "", estimate(), evaluate().cardinality(), scanned, false,
+                    List.of(), List.of(left.plan(), right.plan()));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package JavaSets.sets.sketches;
+
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.properties.Equation;
+
+/**
+ * A membership test that may answer true for elements that were never added but never answers false for added ones
+ * As an equation it is satisfied by all the added elements and a fraction of the others, which makes it a cheap
+ * negative check to run before exact lookups
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public interface ApproximateMembership<T> extends Equation<T> {
+
+    /**
+     * @param t the element to look for
+     * @return false if t was certainly never added, true if it probably was
+     */
+    boolean mightContain(T t);
+
+    /**
+     * @return the probability that an element never added is reported as present, given the current load
+     */
+    double expectedFpp();
+
+    @Override
+    default boolean test(T t) {
+        return mightContain(t);
+    }
+
+    /**
+     * @param exact the set summarized by this filter, possibly expensive to query
+     * @return the equation satisfied by the elements of exact, only looked up when the filter can't rule them out
+     */
+    default Equation<T> predicateContains(AbstractSSet<T> exact) {
+        return t -> mightContain(t) && exact.contains(t);
+    }
+
+    /**
+     * @param exact the set summarized by this filter, possibly expensive to query
+     * @return the equation satisfied by the elements outside of exact, only looked up when the filter can't rule them out
+     */
+    default Equation<T> predicateExcludes(AbstractSSet<T> exact) {
+        return t -> !mightContain(t) || !exact.contains(t);
+    }
+}
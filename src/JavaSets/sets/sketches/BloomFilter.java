@@ -0,0 +1,201 @@
+package JavaSets.sets.sketches;
+
+import JavaSets.Preconditions;
+import JavaSets.io.BinaryReader;
+import JavaSets.io.BinaryWriter;
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.ToLongFunction;
+
+/**
+ * A blocked Bloom filter: each element sets its k bits inside a single block of 512 bits,
+ * so that a lookup touches one cache line whatever k
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class BloomFilter<T> implements ApproximateMembership<T> {
+
+    private static final int MAGIC = 0x4A53424C;
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+
+    private final long[] words;
+    private final int blocks;
+    private final int k;
+    private final ToLongFunction<? super T> hasher;
+
+    private BloomFilter(long[] words, int k, ToLongFunction<? super T> hasher) {
+        this.words = words;
+        this.blocks = words.length / BLOCK_WORDS;
+        this.k = k;
+        this.hasher = hasher;
+    }
+
+    /**
+     * @param expected the number of elements the filter will hold
+     * @param fpp      the wanted false positive probability, in ]0, 1[
+     * @param <T>      the type of the elements
+     * @return an empty filter sized for expected elements
+     */
+    public static <T> BloomFilter<T> create(long expected, double fpp) {
+        return create(expected, fpp, Hashing.DEFAULT);
+    }
+
+    /**
+     * @param expected the number of elements the filter will hold
+     * @param fpp      the wanted false positive probability, in ]0, 1[
+     * @param hasher   the 64 bits hash of the elements
+     * @param <T>      the type of the elements
+     * @return an empty filter sized for expected elements
+     */
+    public static <T> BloomFilter<T> create(long expected, double fpp, ToLongFunction<? super T> hasher) {
+        Preconditions.checkArgument(expected >= 0 && fpp > 0 && fpp < 1);
+        // sized for half the rate, making up for the uneven load of the blocks
+        final double bits = Math.max(1, expected) * -Math.log(fpp / 2) / (Math.log(2) * Math.log(2));
+        final long blocks = Math.max(1, (long) Math.ceil(bits / BLOCK_BITS));
+        Preconditions.checkArgument(blocks * BLOCK_WORDS <= Integer.MAX_VALUE - 8);
+        final int k = (int) Math.max(1, Math.min(16, Math.round(bits / Math.max(1, expected) * Math.log(2))));
+        return new BloomFilter<>(new long[(int) blocks * BLOCK_WORDS], k, hasher);
+    }
+
+    /**
+     * @param set the set to summarize
+     * @param fpp the wanted false positive probability, in ]0, 1[
+     * @param <T> the type of the elements
+     * @return the filter holding all the elements of set
+     */
+    public static <T> BloomFilter<T> of(AbstractSSet<T> set, double fpp) {
+        final BloomFilter<T> filter = create(set.cardinality(), fpp);
+        set.forEach(filter::put);
+        return filter;
+    }
+
+    /**
+     * @param t the element to add
+     */
+    public void put(T t) {
+        final long h = hasher.applyAsLong(t);
+        final int base = block(h);
+        int probe = (int) h;
+        int step = (int) Hashing.mix(h);
+        for (int i = 0; i < k; i++, probe += step, step += i)
+            words[base + ((probe & (BLOCK_BITS - 1)) >>> 6)] |= 1L << probe;
+    }
+
+    @Override
+    public boolean mightContain(T t) {
+        final long h = hasher.applyAsLong(t);
+        final int base = block(h);
+        int probe = (int) h;
+        int step = (int) Hashing.mix(h);
+        for (int i = 0; i < k; i++, probe += step, step += i)
+            if ((words[base + ((probe & (BLOCK_BITS - 1)) >>> 6)] & (1L << probe)) == 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * @param other a filter of the same size, number of bits per element and hash
+     * @return the filter of the elements added to one of both
+     */
+    public BloomFilter<T> union(BloomFilter<T> other) {
+        checkCompatible(other);
+        final long[] result = words.clone();
+        for (int i = 0; i < result.length; i++)
+            result[i] |= other.words[i];
+        return new BloomFilter<>(result, k, hasher);
+    }
+
+    /**
+     * The bits set in both filters, at least as precise as a filter of the intersection would be
+     * for the elements lying in both, but not for the others
+     *
+     * @param other a filter of the same size, number of bits per element and hash
+     * @return a filter of the elements added to both
+     */
+    public BloomFilter<T> intersection(BloomFilter<T> other) {
+        checkCompatible(other);
+        final long[] result = words.clone();
+        for (int i = 0; i < result.length; i++)
+            result[i] &= other.words[i];
+        return new BloomFilter<>(result, k, hasher);
+    }
+
+    @Override
+    public double expectedFpp() {
+        long set = 0;
+        for (long w : words)
+            set += Long.bitCount(w);
+        return Math.pow((double) set / (words.length * (double) Long.SIZE), k);
+    }
+
+    /**
+     * @return the number of bits each element sets
+     */
+    public int hashFunctions() {
+        return k;
+    }
+
+    /**
+     * @return a copy of the bits of the filter
+     */
+    public long[] toLongArray() {
+        return words.clone();
+    }
+
+    /**
+     * @param channel the channel to write the bits on
+     * @throws IOException if the channel fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = new BinaryWriter(channel);
+        out.writeInt(MAGIC);
+        out.writeVarInt(k);
+        out.writeVarInt(words.length);
+        for (long w : words)
+            out.writeLong(w);
+        out.flush();
+    }
+
+    /**
+     * @param channel the channel to read from
+     * @param <T>     the type of the elements
+     * @return the filter written by writeTo, with the default hash
+     * @throws IOException if the channel fails or does not hold a Bloom filter
+     */
+    public static <T> BloomFilter<T> readFrom(ReadableByteChannel channel) throws IOException {
+        return readFrom(channel, Hashing.DEFAULT);
+    }
+
+    /**
+     * @param channel the channel to read from
+     * @param hasher  the hash the filter was built with
+     * @param <T>     the type of the elements
+     * @return the filter written by writeTo
+     * @throws IOException if the channel fails or does not hold a Bloom filter
+     */
+    public static <T> BloomFilter<T> readFrom(ReadableByteChannel channel, ToLongFunction<? super T> hasher) throws IOException {
+        final BinaryReader in = new BinaryReader(channel);
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a serialized Bloom filter.");
+        final int k = in.readVarInt();
+        final long[] words = new long[in.readVarInt()];
+        if (words.length == 0 || words.length % BLOCK_WORDS != 0)
+            throw new IOException("Not a serialized Bloom filter.");
+        for (int i = 0; i < words.length; i++)
+            words[i] = in.readLong();
+        return new BloomFilter<>(words, k, hasher);
+    }
+
+    private int block(long h) {
+        return (int) (((h >>> 32) * blocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    private void checkCompatible(BloomFilter<T> other) {
+        Preconditions.checkArgument(words.length == other.words.length && k == other.k && hasher == other.hasher);
+    }
+}
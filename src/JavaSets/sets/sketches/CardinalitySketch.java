@@ -0,0 +1,331 @@
+package JavaSets.sets.sketches;
+
+import JavaSets.Preconditions;
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.stream.Collector;
+
+/**
+ * A HyperLogLog sketch estimating the number of distinct elements added to it, in 2^precision bytes at most
+ * <p>
+ * Small sketches are sparse: they keep the hashes they saw at a precision of 25 bits in a sorted array and switch to
+ * the dense registers once the array would outweigh them. Estimates use the improved estimator of Ertl, which is
+ * unbiased over the whole range without empirical correction tables. Sketches of the same precision merge into the
+ * sketch of the union, which gives intersections by inclusion-exclusion without materializing any set.
+ * Reading a sketch never modifies it, so that a sketch no longer added to, such as an attached one, can be read
+ * concurrently. Elements are told apart by their hashCode, see Hashing, so estimates saturate near 2^32.
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class CardinalitySketch {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int SPARSE_PRECISION = 25;
+    private static final int BUFFER_SIZE = 256;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final Map<AbstractSSet<?>, CardinalitySketch> ATTACHED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int precision;
+    private byte[] registers;
+    private int[] sparse = new int[0];
+    private int sparseSize;
+    private int[] buffer = new int[BUFFER_SIZE];
+    private int bufferSize;
+
+    /**
+     * A sketch of the default precision, about 0.8% of standard error
+     */
+    public CardinalitySketch() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision the log2 of the number of registers, in [4, 18], the standard error being 1.04 / sqrt(2^precision)
+     */
+    public CardinalitySketch(int precision) {
+        Preconditions.checkArgument(precision >= 4 && precision <= 18);
+        this.precision = precision;
+    }
+
+    /**
+     * @param set the set to sketch, traversed in parallel when large
+     * @return the sketch of the elements of set
+     */
+    public static CardinalitySketch of(AbstractSSet<?> set) {
+        return (set.cardinality() < PARALLEL_THRESHOLD ? set.stream() : set.parallelStream())
+                .collect(toSketch(DEFAULT_PRECISION));
+    }
+
+    /**
+     * @param precision the log2 of the number of registers, in [4, 18]
+     * @param <T>       the type of the elements
+     * @return A collector sketching the elements, partial sketches being merged and the result flushed
+     */
+    public static <T> Collector<T, ?, CardinalitySketch> toSketch(int precision) {
+        return Collector.of(() -> new CardinalitySketch(precision), CardinalitySketch::add, (a, b) -> {
+            a.addAll(b);
+            return a;
+        }, sketch -> {
+            sketch.flush();
+            return sketch;
+        }, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Sketches a set and keeps the sketch attached to it, for as long as the set is reachable
+     *
+     * @param set the set to sketch
+     * @return the sketch attached to set, computed and flushed if there was none
+     */
+    public static CardinalitySketch attach(AbstractSSet<?> set) {
+        final CardinalitySketch sketch = ATTACHED.get(set);
+        if (sketch != null)
+            return sketch;
+        final CardinalitySketch computed = of(set);
+        computed.flush();
+        final CardinalitySketch previous = ATTACHED.putIfAbsent(set, computed);
+        return previous != null ? previous : computed;
+    }
+
+    /**
+     * @param set a set
+     * @return the sketch attached to set, if any, without computing it
+     */
+    public static Optional<CardinalitySketch> attached(AbstractSSet<?> set) {
+        return Optional.ofNullable(ATTACHED.get(set));
+    }
+
+    /**
+     * @param t the element to add
+     */
+    public void add(Object t) {
+        addHash(Hashing.hash(t));
+    }
+
+    /**
+     * @param hash the 64 bits hash of the element to add
+     */
+    public void addHash(long hash) {
+        if (registers != null) {
+            final int i = (int) (hash >>> (Long.SIZE - precision));
+            final int rho = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+            if (rho > registers[i])
+                registers[i] = (byte) rho;
+            return;
+        }
+        final int i = (int) (hash >>> (Long.SIZE - SPARSE_PRECISION));
+        final int rho = Long.numberOfLeadingZeros(hash << SPARSE_PRECISION | 1L << (SPARSE_PRECISION - 1)) + 1;
+        buffer[bufferSize++] = i << 6 | rho;
+        if (bufferSize == BUFFER_SIZE)
+            flush();
+    }
+
+    /**
+     * Merges another sketch into this one, which becomes the sketch of the union
+     *
+     * @param other a sketch of the same precision, left unchanged
+     */
+    public void addAll(CardinalitySketch other) {
+        Preconditions.checkArgument(precision == other.precision);
+        if (other.registers == null) {
+            for (int k = 0; k < other.sparseSize; k++)
+                addSparse(other.sparse[k]);
+            for (int k = 0; k < other.bufferSize; k++)
+                addSparse(other.buffer[k]);
+            flush();
+            return;
+        }
+        toDense();
+        for (int i = 0; i < registers.length; i++)
+            if (other.registers[i] > registers[i])
+                registers[i] = other.registers[i];
+    }
+
+    /**
+     * @param other a sketch of the same precision
+     * @return the sketch of the union of both
+     */
+    public CardinalitySketch union(CardinalitySketch other) {
+        final CardinalitySketch result = copy();
+        result.addAll(other);
+        return result;
+    }
+
+    /**
+     * @return the estimated number of distinct elements added
+     */
+    public long estimate() {
+        if (bufferSize > 0)
+            return copy().estimate();
+        if (registers != null) {
+            final int[] histogram = new int[Long.SIZE - precision + 2];
+            for (byte r : registers)
+                ++histogram[r];
+            return estimate(histogram, precision);
+        }
+        final int[] histogram = new int[Long.SIZE - SPARSE_PRECISION + 2];
+        histogram[0] = (1 << SPARSE_PRECISION) - sparseSize;
+        for (int k = 0; k < sparseSize; k++)
+            ++histogram[sparse[k] & 0x3F];
+        return estimate(histogram, SPARSE_PRECISION);
+    }
+
+    /**
+     * @param a a sketch
+     * @param b a sketch of the same precision
+     * @return the estimated number of elements added to both, by inclusion-exclusion
+     */
+    public static long estimateIntersection(CardinalitySketch a, CardinalitySketch b) {
+        final long a1 = a.estimate();
+        final long b1 = b.estimate();
+        return Math.max(0, Math.min(Math.min(a1, b1), a1 + b1 - a.union(b).estimate()));
+    }
+
+    /**
+     * @param a a sketch
+     * @param b a sketch of the same precision
+     * @return the estimated Jaccard similarity of the sets sketched, by inclusion-exclusion
+     */
+    public static double estimateJaccard(CardinalitySketch a, CardinalitySketch b) {
+        final long union = a.union(b).estimate();
+        return union == 0 ? 0 : (double) estimateIntersection(a, b) / union;
+    }
+
+    /**
+     * @return whether the sketch is still sparse
+     */
+    public boolean isSparse() {
+        return bufferSize > 0 ? copy().isSparse() : registers == null;
+    }
+
+    /**
+     * @return the log2 of the number of registers
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return a flushed copy of this sketch, leaving this one unchanged
+     */
+    private CardinalitySketch copy() {
+        final CardinalitySketch copy = new CardinalitySketch(precision);
+        if (registers != null) {
+            copy.registers = registers.clone();
+            copy.sparse = null;
+            copy.buffer = null;
+        } else {
+            copy.sparse = Arrays.copyOf(sparse, sparseSize);
+            copy.sparseSize = sparseSize;
+            System.arraycopy(buffer, 0, copy.buffer, 0, bufferSize);
+            copy.bufferSize = bufferSize;
+            copy.flush();
+        }
+        return copy;
+    }
+
+    private void addSparse(int entry) {
+        if (registers != null) {
+            final int i = entry >>> 6;
+            final int shift = SPARSE_PRECISION - precision;
+            final int rest = i & ((1 << shift) - 1);
+            final int rho = rest != 0 ? Integer.numberOfLeadingZeros(rest) - (Integer.SIZE - shift) + 1 : shift + (entry & 0x3F);
+            if (rho > registers[i >>> shift])
+                registers[i >>> shift] = (byte) rho;
+            return;
+        }
+        buffer[bufferSize++] = entry;
+        if (bufferSize == BUFFER_SIZE)
+            flush();
+    }
+
+    /**
+     * Merges the buffered entries into the sorted sparse array, keeping the highest rank of each index
+     */
+    private void flush() {
+        if (bufferSize == 0 || registers != null)
+            return;
+        Arrays.sort(buffer, 0, bufferSize);
+        final int[] merged = new int[sparseSize + bufferSize];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sparseSize || j < bufferSize) {
+            final int e = j == bufferSize || i < sparseSize && sparse[i] < buffer[j] ? sparse[i++] : buffer[j++];
+            if (n > 0 && merged[n - 1] >>> 6 == e >>> 6)
+                merged[n - 1] = e;
+            else
+                merged[n++] = e;
+        }
+        sparse = merged;
+        sparseSize = n;
+        bufferSize = 0;
+        if (sparseSize > (1 << precision) / 4)
+            toDense();
+    }
+
+    private void toDense() {
+        if (registers != null)
+            return;
+        flush();
+        if (registers != null)
+            return;
+        registers = new byte[1 << precision];
+        for (int k = 0; k < sparseSize; k++)
+            addSparse(sparse[k]);
+        sparse = null;
+        sparseSize = 0;
+        buffer = null;
+    }
+
+    /**
+     * The improved raw estimator of Ertl, from the histogram of the register values
+     */
+    private static long estimate(int[] histogram, int p) {
+        final double m = 1 << p;
+        final int q = Long.SIZE - p;
+        double z = m * tau(1 - histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--)
+            z = 0.5 * (z + histogram[k]);
+        z += m * sigma(histogram[0] / m);
+        return Math.round(m * m / (2 * Math.log(2)) / z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1)
+            return Double.POSITIVE_INFINITY;
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1)
+            return 0;
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != previous);
+        return z / 3;
+    }
+}
@@ -0,0 +1,335 @@
+package JavaSets.sets.sketches;
+
+import JavaSets.Preconditions;
+import JavaSets.io.BinaryReader;
+import JavaSets.io.BinaryWriter;
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cuckoo filter storing a fingerprint of each element in one of its two candidate buckets of 4 slots
+ * The other bucket of a fingerprint can be found from the fingerprint alone, which allows elements to be moved
+ * when both buckets are full and to be removed
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class CuckooFilter<T> implements ApproximateMembership<T> {
+
+    private static final int MAGIC = 0x4A534346;
+    private static final int SLOTS = 4;
+    private static final int MAX_KICKS = 500;
+    private static final double LOAD_FACTOR = 0.95;
+
+    private final short[] table;
+    private final int bucketMask;
+    private final int fingerprintBits;
+    private final ToLongFunction<? super T> hasher;
+    private int size;
+    private long random = 0x9E3779B97F4A7C15L;
+
+    /**
+     * A fingerprint that could not be placed after MAX_KICKS moves, 0 if there is none
+     */
+    private int victim;
+    private int victimBucket;
+
+    private CuckooFilter(int buckets, int fingerprintBits, ToLongFunction<? super T> hasher) {
+        this.table = new short[buckets * SLOTS];
+        this.bucketMask = buckets - 1;
+        this.fingerprintBits = fingerprintBits;
+        this.hasher = hasher;
+    }
+
+    /**
+     * @param expected the number of elements the filter will hold
+     * @param fpp      the wanted false positive probability, in ]0, 1[
+     * @param <T>      the type of the elements
+     * @return an empty filter sized for expected elements
+     */
+    public static <T> CuckooFilter<T> create(long expected, double fpp) {
+        return create(expected, fpp, Hashing.DEFAULT);
+    }
+
+    /**
+     * @param expected the number of elements the filter will hold
+     * @param fpp      the wanted false positive probability, in ]0, 1[, at best about 1.2e-4 with 16 bits fingerprints
+     * @param hasher   the 64 bits hash of the elements
+     * @param <T>      the type of the elements
+     * @return an empty filter sized for expected elements
+     */
+    public static <T> CuckooFilter<T> create(long expected, double fpp, ToLongFunction<? super T> hasher) {
+        Preconditions.checkArgument(expected >= 0 && fpp > 0 && fpp < 1);
+        final int bits = (int) Math.max(4, Math.min(16, Math.ceil(Math.log(2 * SLOTS / fpp) / Math.log(2))));
+        final long buckets = Math.max(1, (long) Math.ceil(expected / (SLOTS * LOAD_FACTOR)));
+        Preconditions.checkArgument(buckets <= (1 << 28));
+        return new CuckooFilter<>(Integer.highestOneBit((int) buckets * 2 - 1), bits, hasher);
+    }
+
+    /**
+     * @param set the set to summarize
+     * @param fpp the wanted false positive probability, in ]0, 1[
+     * @param <T> the type of the elements
+     * @return the filter holding all the elements of set, grown until they all fit
+     */
+    public static <T> CuckooFilter<T> of(AbstractSSet<T> set, double fpp) {
+        long expected = set.cardinality();
+        while (true) {
+            final CuckooFilter<T> filter = create(expected, fpp);
+            boolean full = false;
+            for (T t : set)
+                if (!filter.put(t)) {
+                    full = true;
+                    break;
+                }
+            if (!full)
+                return filter;
+            expected *= 2;
+        }
+    }
+
+    /**
+     * @param t the element to add
+     * @return whether it could be added, false if the filter is full
+     */
+    public boolean put(T t) {
+        final long h = hasher.applyAsLong(t);
+        final int fp = fingerprint(h);
+        return insert(bucket(h), fp);
+    }
+
+    /**
+     * Removes one occurrence of the fingerprint of an element, which must have been added before
+     *
+     * @param t the element to remove
+     * @return whether a fingerprint was removed
+     */
+    public boolean remove(T t) {
+        final long h = hasher.applyAsLong(t);
+        final int fp = fingerprint(h);
+        final int i1 = bucket(h);
+        final int i2 = alternate(i1, fp);
+        if (removeFrom(i1, fp) || removeFrom(i2, fp)) {
+            --size;
+            if (victim != 0) {
+                final int v = victim;
+                victim = 0;
+                --size;
+                insert(victimBucket, v);
+            }
+            return true;
+        }
+        if (victim == fp && (victimBucket == i1 || victimBucket == i2)) {
+            victim = 0;
+            --size;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean mightContain(T t) {
+        final long h = hasher.applyAsLong(t);
+        final int fp = fingerprint(h);
+        final int i1 = bucket(h);
+        final int i2 = alternate(i1, fp);
+        return holds(i1, fp) || holds(i2, fp) || victim == fp && (victimBucket == i1 || victimBucket == i2);
+    }
+
+    /**
+     * @param other a filter of the same size, fingerprints and hash
+     * @return the filter of the elements added to one of both
+     * @throws IllegalStateException if the fingerprints of both don't fit in a single filter
+     */
+    public CuckooFilter<T> union(CuckooFilter<T> other) {
+        checkCompatible(other);
+        final CuckooFilter<T> result = copy();
+        other.forEachFingerprint((i, fp) -> {
+            if (!result.holds(i, fp) && !result.holds(result.alternate(i, fp), fp) && !result.insert(i, fp))
+                throw new IllegalStateException("The union does not fit in the filter.");
+        });
+        return result;
+    }
+
+    /**
+     * @param other a filter of the same size, fingerprints and hash
+     * @return the filter of the fingerprints found in both
+     */
+    public CuckooFilter<T> intersection(CuckooFilter<T> other) {
+        checkCompatible(other);
+        final CuckooFilter<T> result = new CuckooFilter<>(bucketMask + 1, fingerprintBits, hasher);
+        forEachFingerprint((i, fp) -> {
+            if (other.holds(i, fp) || other.holds(other.alternate(i, fp), fp))
+                result.insert(i, fp);
+        });
+        return result;
+    }
+
+    /**
+     * @return the number of fingerprints held
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double expectedFpp() {
+        return Math.min(1, 2d * SLOTS * size / (table.length * (double) (1 << fingerprintBits)));
+    }
+
+    /**
+     * @param channel the channel to write the fingerprints on
+     * @throws IOException if the channel fails
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        final BinaryWriter out = new BinaryWriter(channel);
+        out.writeInt(MAGIC);
+        out.writeVarInt(fingerprintBits);
+        out.writeVarInt(bucketMask + 1);
+        out.writeVarInt(victim);
+        out.writeVarInt(victimBucket);
+        for (int i = 0; i < table.length; i += 2)
+            out.writeInt(table[i] << 16 | (table[i + 1] & 0xFFFF));
+        out.flush();
+    }
+
+    /**
+     * @param channel the channel to read from
+     * @param <T>     the type of the elements
+     * @return the filter written by writeTo, with the default hash
+     * @throws IOException if the channel fails or does not hold a cuckoo filter
+     */
+    public static <T> CuckooFilter<T> readFrom(ReadableByteChannel channel) throws IOException {
+        return readFrom(channel, Hashing.DEFAULT);
+    }
+
+    /**
+     * @param channel the channel to read from
+     * @param hasher  the hash the filter was built with
+     * @param <T>     the type of the elements
+     * @return the filter written by writeTo
+     * @throws IOException if the channel fails or does not hold a cuckoo filter
+     */
+    public static <T> CuckooFilter<T> readFrom(ReadableByteChannel channel, ToLongFunction<? super T> hasher) throws IOException {
+        final BinaryReader in = new BinaryReader(channel);
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a serialized cuckoo filter.");
+        final int bits = in.readVarInt();
+        final int buckets = in.readVarInt();
+        if (bits < 4 || bits > 16 || buckets <= 0 || Integer.bitCount(buckets) != 1)
+            throw new IOException("Not a serialized cuckoo filter.");
+        final CuckooFilter<T> filter = new CuckooFilter<>(buckets, bits, hasher);
+        filter.victim = in.readVarInt();
+        filter.victimBucket = in.readVarInt();
+        filter.size = filter.victim == 0 ? 0 : 1;
+        for (int i = 0; i < filter.table.length; i += 2) {
+            final int pair = in.readInt();
+            filter.table[i] = (short) (pair >>> 16);
+            filter.table[i + 1] = (short) pair;
+            filter.size += (filter.table[i] != 0 ? 1 : 0) + (filter.table[i + 1] != 0 ? 1 : 0);
+        }
+        return filter;
+    }
+
+    private boolean insert(int bucket, int fp) {
+        if (victim != 0)
+            return false;
+        if (insertInto(bucket, fp) || insertInto(alternate(bucket, fp), fp)) {
+            ++size;
+            return true;
+        }
+        int i = (nextRandom() & 1) == 0 ? bucket : alternate(bucket, fp);
+        int f = fp;
+        for (int n = 0; n < MAX_KICKS; n++) {
+            final int slot = i * SLOTS + (nextRandom() & (SLOTS - 1));
+            final int kicked = table[slot] & 0xFFFF;
+            table[slot] = (short) f;
+            f = kicked;
+            i = alternate(i, f);
+            if (insertInto(i, f)) {
+                ++size;
+                return true;
+            }
+        }
+        victim = f;
+        victimBucket = i;
+        ++size;
+        return true;
+    }
+
+    private boolean insertInto(int bucket, int fp) {
+        for (int s = bucket * SLOTS; s < bucket * SLOTS + SLOTS; s++)
+            if (table[s] == 0) {
+                table[s] = (short) fp;
+                return true;
+            }
+        return false;
+    }
+
+    private boolean removeFrom(int bucket, int fp) {
+        for (int s = bucket * SLOTS; s < bucket * SLOTS + SLOTS; s++)
+            if ((table[s] & 0xFFFF) == fp) {
+                table[s] = 0;
+                return true;
+            }
+        return false;
+    }
+
+    private boolean holds(int bucket, int fp) {
+        for (int s = bucket * SLOTS; s < bucket * SLOTS + SLOTS; s++)
+            if ((table[s] & 0xFFFF) == fp)
+                return true;
+        return false;
+    }
+
+    private void forEachFingerprint(FingerprintConsumer action) {
+        for (int s = 0; s < table.length; s++)
+            if (table[s] != 0)
+                action.accept(s / SLOTS, table[s] & 0xFFFF);
+        if (victim != 0)
+            action.accept(victimBucket, victim);
+    }
+
+    private CuckooFilter<T> copy() {
+        final CuckooFilter<T> copy = new CuckooFilter<>(bucketMask + 1, fingerprintBits, hasher);
+        System.arraycopy(table, 0, copy.table, 0, table.length);
+        copy.size = size;
+        copy.victim = victim;
+        copy.victimBucket = victimBucket;
+        return copy;
+    }
+
+    private int fingerprint(long h) {
+        final int fp = (int) h & ((1 << fingerprintBits) - 1);
+        return fp == 0 ? 1 : fp;
+    }
+
+    private int bucket(long h) {
+        return (int) (h >>> 32) & bucketMask;
+    }
+
+    private int alternate(int bucket, int fp) {
+        return (bucket ^ (int) Hashing.mix(fp)) & bucketMask;
+    }
+
+    private int nextRandom() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return (int) random;
+    }
+
+    private void checkCompatible(CuckooFilter<T> other) {
+        Preconditions.checkArgument(table.length == other.table.length && fingerprintBits == other.fingerprintBits
+                && hasher == other.hasher);
+    }
+
+    @FunctionalInterface
+    private interface FingerprintConsumer {
+        void accept(int bucket, int fingerprint);
+    }
+}
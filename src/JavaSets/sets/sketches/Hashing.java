@@ -0,0 +1,45 @@
+package JavaSets.sets.sketches;
+
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * 64 bits hashes of the elements, spreading their hashCode over all the bits
+ * The hash is derived from the 32 bits hashCode alone, so it takes at most 2^32 distinct values and elements of equal
+ * hashCode are indistinguishable: cardinality estimates saturate near 2^32 and filters confuse such elements.
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+final class Hashing {
+
+    /**
+     * The hash used by default, a single instance so that sketches built with it can be recognized as compatible
+     */
+    static final ToLongFunction<Object> DEFAULT = Hashing::hash;
+
+    //Non instantiable
+    private Hashing() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param o any element
+     * @return the 64 bits hash of o, a function of its hashCode only
+     */
+    static long hash(Object o) {
+        return mix(Objects.hashCode(o) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, each bit of the input affecting all the bits of the output
+     *
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
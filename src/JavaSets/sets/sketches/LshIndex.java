@@ -0,0 +1,144 @@
+package JavaSets.sets.sketches;
+
+import JavaSets.Preconditions;
+import JavaSets.sets.abstraction.AbstractSSet;
+import JavaSets.sets.concrete.SSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A locality sensitive hashing index of sets by their MinHash signatures
+ * The signatures are cut in bands of rows, and sets are candidates to each other when all the rows of one of their
+ * bands agree, which for bands of r rows among b happens with probability 1 - (1 - s^r)^b for a similarity s.
+ * A lookup hashes the bands of the query and only reads the buckets it falls in.
+ * Sets can be added concurrently, the buckets of a key being updated while its signature is locked.
+ *
+ * @param <K> the type of the keys identifying the indexed sets
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class LshIndex<K> {
+
+    private final MinHash minHash;
+    private final int bands;
+    private final int rows;
+    private final Map<K, MinHash.Signature> signatures = new ConcurrentHashMap<>();
+    private final List<Map<Long, Set<K>>> buckets;
+
+    /**
+     * @param minHash the MinHash signing the sets
+     * @param bands   the number of bands, dividing the size of the signatures
+     */
+    public LshIndex(MinHash minHash, int bands) {
+        Preconditions.checkArgument(bands > 0 && minHash.size() % bands == 0);
+        this.minHash = minHash;
+        this.bands = bands;
+        this.rows = minHash.size() / bands;
+        this.buckets = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++)
+            buckets.add(new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param minHash   the MinHash signing the sets
+     * @param threshold the similarity around which sets should start being candidates, in ]0, 1[
+     * @param <K>       the type of the keys
+     * @return an index whose bands make (1 / bands)^(1 / rows) the closest to threshold from below,
+     * favouring recall over the number of candidates
+     */
+    public static <K> LshIndex<K> forThreshold(MinHash minHash, double threshold) {
+        Preconditions.checkArgument(threshold > 0 && threshold < 1);
+        int best = minHash.size();
+        for (int b = 1; b <= minHash.size(); b++)
+            if (minHash.size() % b == 0 && pivot(b, minHash.size() / b) <= threshold
+                    && pivot(b, minHash.size() / b) > pivot(best, minHash.size() / best))
+                best = b;
+        return new LshIndex<>(minHash, best);
+    }
+
+    private static double pivot(int bands, int rows) {
+        return Math.pow(1d / bands, 1d / rows);
+    }
+
+    /**
+     * @param key the key of the set, replacing any set previously indexed under it
+     * @param set the set to index
+     */
+    public void put(K key, AbstractSSet<?> set) {
+        put(key, minHash.signature(set));
+    }
+
+    /**
+     * @param key       the key of the set, replacing any set previously indexed under it
+     * @param signature the signature of the set, made by the MinHash of this index
+     */
+    public void put(K key, MinHash.Signature signature) {
+        Preconditions.checkArgument(signature.getFamily().equals(minHash));
+        signatures.compute(key, (k, previous) -> {
+            if (previous != null)
+                for (int b = 0; b < bands; b++)
+                    buckets.get(b).computeIfPresent(previous.hashOf(b * rows, (b + 1) * rows), (h, keys) -> {
+                        keys.remove(key);
+                        return keys.isEmpty() ? null : keys;
+                    });
+            for (int b = 0; b < bands; b++)
+                buckets.get(b).compute(signature.hashOf(b * rows, (b + 1) * rows), (h, keys) -> {
+                    final Set<K> result = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                    result.add(key);
+                    return result;
+                });
+            return signature;
+        });
+    }
+
+    /**
+     * @param query the set to look for
+     * @return the keys of the sets sharing at least one band with query
+     */
+    public AbstractSSet<K> candidates(AbstractSSet<?> query) {
+        return candidates(minHash.signature(query));
+    }
+
+    /**
+     * @param signature the signature of the set to look for
+     * @return the keys of the sets sharing at least one band with it
+     */
+    public AbstractSSet<K> candidates(MinHash.Signature signature) {
+        final SSet.Builder<K> result = SSet.builder();
+        for (int b = 0; b < bands; b++) {
+            final Set<K> keys = buckets.get(b).get(signature.hashOf(b * rows, (b + 1) * rows));
+            if (keys != null)
+                result.addAll(keys);
+        }
+        return result.build();
+    }
+
+    /**
+     * @param query     the set to look for
+     * @param threshold the minimal estimated Jaccard similarity
+     * @return the keys of the candidates whose signature agrees with the query on at least threshold of the bins
+     */
+    public AbstractSSet<K> similar(AbstractSSet<?> query, double threshold) {
+        final MinHash.Signature signature = minHash.signature(query);
+        return candidates(signature).suchThat(k -> signatures.get(k).estimateJaccard(signature) >= threshold);
+    }
+
+    /**
+     * @param key the key of an indexed set
+     * @return the signature of that set, null if there is none
+     */
+    public MinHash.Signature signatureOf(K key) {
+        return signatures.get(key);
+    }
+
+    /**
+     * @return the number of indexed sets
+     */
+    public int size() {
+        return signatures.size();
+    }
+}
@@ -0,0 +1,179 @@
+package JavaSets.sets.sketches;
+
+import JavaSets.Preconditions;
+import JavaSets.sets.abstraction.AbstractSSet;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+/**
+ * One permutation MinHash: a single hash of each element picks one of k bins and competes for its minimum,
+ * empty bins then borrowing the minimum of a bin chosen by rehashing until a non empty one is found
+ * The fraction of bins two signatures agree on estimates the Jaccard similarity of the sets, each signature costing
+ * a single pass, possibly parallel, over its set
+ *
+ * @author Alexandre Sallinen (303162)
+ * @author Salim Najib (310003)
+ */
+public final class MinHash {
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final long EMPTY = Long.MAX_VALUE;
+
+    private final int k;
+    private final long seed;
+
+    /**
+     * @param k    the number of bins of the signatures, the standard error of the estimates being about 1 / sqrt(k)
+     * @param seed the seed of the permutation, signatures being comparable only for the same seed
+     */
+    public MinHash(int k, long seed) {
+        Preconditions.checkArgument(k > 0);
+        this.k = k;
+        this.seed = seed;
+    }
+
+    /**
+     * @param k the number of bins of the signatures
+     */
+    public MinHash(int k) {
+        this(k, 0);
+    }
+
+    /**
+     * @return the number of bins of the signatures
+     */
+    public int size() {
+        return k;
+    }
+
+    /**
+     * @param set the set to sign, traversed in parallel when large
+     * @return the signature of set
+     */
+    public Signature signature(AbstractSSet<?> set) {
+        return (set.cardinality() < PARALLEL_THRESHOLD ? set.stream() : set.parallelStream()).collect(toSignature());
+    }
+
+    /**
+     * @param <T> the type of the elements
+     * @return A collector signing the elements, partial bins being merged by minimum
+     */
+    public <T> Collector<T, ?, Signature> toSignature() {
+        return Collector.<T, long[], Signature>of(() -> {
+            final long[] bins = new long[k];
+            Arrays.fill(bins, EMPTY);
+            return bins;
+        }, (bins, t) -> {
+            final long h = Hashing.mix(Hashing.hash(t) ^ seed);
+            final int bin = (int) (((h >>> 32) * k) >>> 32);
+            final long value = h & 0xFFFFFFFFL;
+            if (value < bins[bin])
+                bins[bin] = value;
+        }, (a, b) -> {
+            for (int i = 0; i < k; i++)
+                a[i] = Math.min(a[i], b[i]);
+            return a;
+        }, this::densify, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Fills each empty bin with the value of the first non empty bin reached by rehashing its index
+     */
+    private Signature densify(long[] bins) {
+        final long[] values = bins.clone();
+        boolean empty = true;
+        for (long b : bins)
+            empty &= b == EMPTY;
+        if (!empty)
+            for (int i = 0; i < k; i++)
+                for (int attempt = 1; values[i] == EMPTY; attempt++) {
+                    final long h = Hashing.mix((long) i << 32 ^ attempt ^ seed);
+                    final int from = (int) (((h >>> 32) * k) >>> 32);
+                    if (bins[from] != EMPTY)
+                        values[i] = bins[from] + ((long) attempt << 32);
+                }
+        return new Signature(this, values);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MinHash)) return false;
+        final MinHash that = (MinHash) o;
+        return k == that.k && seed == that.seed;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * k + Long.hashCode(seed);
+    }
+
+    /**
+     * The MinHash signature of a set
+     */
+    public static final class Signature {
+
+        private final MinHash family;
+        private final long[] values;
+
+        private Signature(MinHash family, long[] values) {
+            this.family = family;
+            this.values = values;
+        }
+
+        /**
+         * @param other a signature made by the same MinHash
+         * @return the estimated Jaccard similarity of both sets
+         */
+        public double estimateJaccard(Signature other) {
+            Preconditions.checkArgument(family.equals(other.family));
+            if (values[0] == EMPTY && other.values[0] == EMPTY)
+                return 1;
+            int equal = 0;
+            for (int i = 0; i < values.length; i++)
+                if (values[i] == other.values[i])
+                    ++equal;
+            return (double) equal / values.length;
+        }
+
+        /**
+         * @param from the first bin
+         * @param to   the bin after the last one
+         * @return a hash of the values of the bins
+         */
+        long hashOf(int from, int to) {
+            long h = to - from;
+            for (int i = from; i < to; i++)
+                h = Hashing.mix(h * 31 + values[i]);
+            return h;
+        }
+
+        /**
+         * @return the MinHash which made this signature
+         */
+        public MinHash getFamily() {
+            return family;
+        }
+
+        /**
+         * @return a copy of the values of the bins
+         */
+        public long[] toLongArray() {
+            return values.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Signature)) return false;
+            final Signature that = (Signature) o;
+            return family.equals(that.family) && Arrays.equals(values, that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}